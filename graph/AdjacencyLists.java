@@ -0,0 +1,168 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/** Per-vertex lists of (neighbor, edge id) pairs.  Each vertex owns a pair
+ *  of growable int arrays, so appending a pair is amortized constant time
+ *  and walking the list for one vertex costs time proportional to its
+ *  length.  Lists keep their entries in insertion order.
+ *  @author Eric Huang
+ */
+final class AdjacencyLists {
+
+    /** A set of empty lists. */
+    AdjacencyLists() {
+        _nbrs = new int[INITIAL_VERTICES][];
+        _ids = new int[INITIAL_VERTICES][];
+        _sizes = new int[INITIAL_VERTICES];
+    }
+
+    /** Returns the number of entries in the list for V. */
+    int size(int v) {
+        return v >= 0 && v < _sizes.length ? _sizes[v] : 0;
+    }
+
+    /** Returns the neighbor in entry K of the list for V. */
+    int neighbor(int v, int k) {
+        return _nbrs[v][k];
+    }
+
+    /** Returns the edge id in entry K of the list for V. */
+    int id(int v, int k) {
+        return _ids[v][k];
+    }
+
+    /** Returns the index of neighbor W in the list for V, or -1 if W
+     *  does not appear there. */
+    int indexOf(int v, int w) {
+        int n = size(v);
+        if (n > 0) {
+            int[] nbrs = _nbrs[v];
+            for (int k = 0; k < n; k += 1) {
+                if (nbrs[k] == w) {
+                    return k;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /** Append the pair (W, ID) to the list for V. */
+    void add(int v, int w, int id) {
+        reserve(v);
+        int n = _sizes[v];
+        if (_nbrs[v] == null) {
+            _nbrs[v] = new int[INITIAL_DEGREE];
+            _ids[v] = new int[INITIAL_DEGREE];
+        } else if (n == _nbrs[v].length) {
+            _nbrs[v] = Arrays.copyOf(_nbrs[v], 2 * n);
+            _ids[v] = Arrays.copyOf(_ids[v], 2 * n);
+        }
+        _nbrs[v][n] = w;
+        _ids[v][n] = id;
+        _sizes[v] = n + 1;
+    }
+
+    /** Remove neighbor W from the list for V, keeping the remaining
+     *  entries in order.  Returns the edge id that was paired with W, or 0
+     *  if W was not present. */
+    int remove(int v, int w) {
+        int k = indexOf(v, w);
+        if (k < 0) {
+            return 0;
+        }
+        int id = _ids[v][k];
+        int n = _sizes[v] - 1;
+        System.arraycopy(_nbrs[v], k + 1, _nbrs[v], k, n - k);
+        System.arraycopy(_ids[v], k + 1, _ids[v], k, n - k);
+        _sizes[v] = n;
+        return id;
+    }
+
+    /** Remove from the list for V, in one pass that keeps the remaining
+     *  entries in order, each entry whose edge id E has LIVE[E] == 0. */
+    void retain(int v, int[] live) {
+        int n = size(v);
+        if (n == 0) {
+            return;
+        }
+        int[] nbrs = _nbrs[v], ids = _ids[v];
+        int m;
+        m = 0;
+        for (int k = 0; k < n; k += 1) {
+            if (live[ids[k]] != 0) {
+                nbrs[m] = nbrs[k];
+                ids[m] = ids[k];
+                m += 1;
+            }
+        }
+        _sizes[v] = m;
+    }
+
+    /** Remove all entries for V and release its storage. */
+    void clear(int v) {
+        if (v >= 0 && v < _sizes.length) {
+            _nbrs[v] = null;
+            _ids[v] = null;
+            _sizes[v] = 0;
+        }
+    }
+
+    /** Replace each edge id E in my lists by RENUMBERING[E]. */
+    void renumber(int[] renumbering) {
+        for (int v = 0; v < _sizes.length; v += 1) {
+            for (int k = 0; k < _sizes[v]; k += 1) {
+                _ids[v][k] = renumbering[_ids[v][k]];
+            }
+        }
+    }
+
+    /** Returns an iteration over the neighbors in the list for V.  The
+     *  iteration reads the live list, so it must not be used after the
+     *  list for V is modified. */
+    IntIteration neighbors(final int v) {
+        return new IntIteration() {
+            @Override
+            public boolean hasNext() {
+                return _k < size(v);
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                _k += 1;
+                return _nbrs[v][_k - 1];
+            }
+
+            /** Index of the next entry to deliver. */
+            private int _k;
+        };
+    }
+
+    /** Make sure there is a slot for vertex V. */
+    private void reserve(int v) {
+        if (v >= _sizes.length) {
+            int n = Math.max(v + 1, 2 * _sizes.length);
+            _nbrs = Arrays.copyOf(_nbrs, n);
+            _ids = Arrays.copyOf(_ids, n);
+            _sizes = Arrays.copyOf(_sizes, n);
+        }
+    }
+
+    /** Number of vertex slots allocated initially. */
+    private static final int INITIAL_VERTICES = 16;
+    /** Capacity of a vertex's list when its first entry is added. */
+    private static final int INITIAL_DEGREE = 4;
+
+    /** Neighbors of each vertex, indexed by vertex number. */
+    private int[][] _nbrs;
+    /** Edge ids parallel to _nbrs. */
+    private int[][] _ids;
+    /** Number of entries in use in each vertex's list. */
+    private int[] _sizes;
+}
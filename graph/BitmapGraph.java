@@ -0,0 +1,365 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.NoSuchElementException;
+
+/** A directed or undirected graph stored as an adjacency matrix of bits,
+ *  suited to small, dense graphs.  Each vertex has a row of bits (as an
+ *  array of longs) marking its successors, and in a directed graph a
+ *  second row marking its predecessors, so that contains(u, v) is a
+ *  single bit test and iterating over successors scans a word at a time.
+ *  Storage is proportional to the square of the largest vertex number,
+ *  regardless of the number of edges; see GraphBuilder for choosing
+ *  between this and sparse storage.  Edge ids are kept in an EdgeIndex,
+ *  and the ids of removed edges are reused.  Successors and predecessors
+ *  are delivered in increasing order.
+ *  @author Eric Huang
+ */
+public class BitmapGraph extends Graph {
+
+    /** An empty graph, which is directed iff DIRECTED. */
+    public BitmapGraph(boolean directed) {
+        _directed = directed;
+        _vertexSet = new BitSet();
+        _freeVertex = 1;
+        _out = new long[INITIAL_VERTICES][];
+        _in = directed ? new long[INITIAL_VERTICES][] : _out;
+        _outDegrees = new int[INITIAL_VERTICES];
+        _inDegrees = directed ? new int[INITIAL_VERTICES] : _outDegrees;
+        _index = new EdgeIndex();
+        _nextEdge = 1;
+        _freeEdges = new int[INITIAL_VERTICES];
+    }
+
+    @Override
+    public int vertexSize() {
+        return _vertexSize;
+    }
+
+    @Override
+    public int maxVertex() {
+        return Math.max(0, _vertexSet.length() - 1);
+    }
+
+    @Override
+    public int edgeSize() {
+        return _edgeSize;
+    }
+
+    @Override
+    public boolean isDirected() {
+        return _directed;
+    }
+
+    @Override
+    public int outDegree(int v) {
+        return contains(v) ? _outDegrees[v] : 0;
+    }
+
+    @Override
+    public int inDegree(int v) {
+        return contains(v) ? _inDegrees[v] : 0;
+    }
+
+    @Override
+    public boolean contains(int u) {
+        return u > 0 && _vertexSet.get(u);
+    }
+
+    @Override
+    public boolean contains(int u, int v) {
+        return contains(u) && v > 0 && get(_out[u], v);
+    }
+
+    @Override
+    public int add() {
+        int v = _freeVertex;
+        if (v >= _out.length) {
+            int size = 2 * _out.length;
+            _out = Arrays.copyOf(_out, size);
+            _outDegrees = Arrays.copyOf(_outDegrees, size);
+            if (_directed) {
+                _in = Arrays.copyOf(_in, size);
+                _inDegrees = Arrays.copyOf(_inDegrees, size);
+            } else {
+                _in = _out;
+                _inDegrees = _outDegrees;
+            }
+        }
+        _vertexSet.set(v);
+        _vertexSize += 1;
+        _freeVertex = _vertexSet.nextClearBit(v + 1);
+        return v;
+    }
+
+    @Override
+    public int add(int u, int v) {
+        if (contains(u, v)) {
+            throw new IllegalArgumentException("Edge already exists.");
+        }
+        if (!contains(u) || !contains(v)) {
+            throw new IllegalArgumentException("Vertices do not exist.");
+        }
+        int id;
+        if (_freeEdgeCount > 0) {
+            _freeEdgeCount -= 1;
+            id = _freeEdges[_freeEdgeCount];
+        } else {
+            id = _nextEdge;
+            _nextEdge += 1;
+        }
+        _out[u] = set(_out[u], v);
+        _outDegrees[u] += 1;
+        if (_directed || u != v) {
+            _in[v] = set(_in[v], u);
+            _inDegrees[v] += 1;
+        }
+        _edgeSize += 1;
+        if (_directed || u <= v) {
+            _index.put(u, v, id);
+        } else {
+            _index.put(v, u, id);
+        }
+        return id;
+    }
+
+    @Override
+    public void remove(int v) {
+        if (!contains(v)) {
+            return;
+        }
+        for (IntIteration succs = intSuccessors(v); succs.hasNext(); ) {
+            removeEdge(v, succs.nextInt());
+        }
+        if (_directed) {
+            for (IntIteration preds = intPredecessors(v); preds.hasNext(); ) {
+                removeEdge(preds.nextInt(), v);
+            }
+        }
+        _vertexSet.clear(v);
+        _vertexSize -= 1;
+        _freeVertex = Math.min(_freeVertex, v);
+    }
+
+    @Override
+    public void remove(int u, int v) {
+        if (contains(u, v)) {
+            removeEdge(u, v);
+        }
+    }
+
+    @Override
+    public Iteration<Integer> vertices() {
+        return intVertices();
+    }
+
+    @Override
+    public Iteration<Integer> successors(int v) {
+        return intSuccessors(v);
+    }
+
+    @Override
+    public Iteration<Integer> predecessors(int v) {
+        return intPredecessors(v);
+    }
+
+    @Override
+    public IntIteration intVertices() {
+        return Iteration.setBits(_vertexSet);
+    }
+
+    @Override
+    public IntIteration intSuccessors(int v) {
+        return new RowIteration(contains(v) ? _out[v] : null);
+    }
+
+    @Override
+    public IntIteration intPredecessors(int v) {
+        return new RowIteration(contains(v) ? _in[v] : null);
+    }
+
+    /** Returns an iteration over my edges in order of their end points,
+     *  delivering every edge in the same two-element array.  Each
+     *  undirected edge appears once, with its smaller end first. */
+    @Override
+    public Iteration<int[]> edges() {
+        return new Iteration<int[]>() {
+            @Override
+            public boolean hasNext() {
+                if (_v != 0) {
+                    return true;
+                }
+                while (true) {
+                    while (_succs.hasNext()) {
+                        _v = _succs.nextInt();
+                        if (_directed || _v >= _u) {
+                            return true;
+                        }
+                    }
+                    _u = _vertexSet.nextSetBit(_u + 1);
+                    if (_u < 0) {
+                        _v = 0;
+                        return false;
+                    }
+                    _succs = intSuccessors(_u);
+                }
+            }
+
+            @Override
+            public int[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                _edge[0] = _u;
+                _edge[1] = _v;
+                _v = 0;
+                return _edge;
+            }
+
+            /** First end of the current edge. */
+            private int _u = 0;
+            /** Second end of the pending edge, or 0 if none. */
+            private int _v;
+            /** Remaining successors of _u. */
+            private IntIteration _succs = new RowIteration(null);
+            /** The array returned by next(). */
+            private final int[] _edge = new int[2];
+        };
+    }
+
+    @Override
+    protected void checkMyVertex(int v) {
+        if (!contains(v)) {
+            throw new IllegalArgumentException("vertex not from Graph");
+        }
+    }
+
+    @Override
+    protected int edgeId(int u, int v) {
+        if (!contains(u, v)) {
+            return 0;
+        } else if (_directed || u <= v) {
+            return _index.get(u, v);
+        } else {
+            return _index.get(v, u);
+        }
+    }
+
+    /** An iteration over the positions of the 1 bits in a row. */
+    private static class RowIteration extends IntIteration {
+        /** An iteration over ROW, which may be null (for an empty
+         *  row). */
+        RowIteration(long[] row) {
+            _row = row == null ? EMPTY_ROW : row;
+            _bits = _row.length == 0 ? 0 : _row[0];
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (_bits == 0) {
+                _word += 1;
+                if (_word >= _row.length) {
+                    return false;
+                }
+                _bits = _row[_word];
+            }
+            return true;
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int v = (_word << 6) + Long.numberOfTrailingZeros(_bits);
+            _bits &= _bits - 1;
+            return v;
+        }
+
+        /** The row. */
+        private final long[] _row;
+        /** Index of the current word. */
+        private int _word;
+        /** Bits of the current word not yet delivered. */
+        private long _bits;
+    }
+
+    /** Remove the existing edge (U, V) and free its id. */
+    private void removeEdge(int u, int v) {
+        clear(_out[u], v);
+        _outDegrees[u] -= 1;
+        if (_directed || u != v) {
+            clear(_in[v], u);
+            _inDegrees[v] -= 1;
+        }
+        _edgeSize -= 1;
+        int id = _directed || u <= v ? _index.remove(u, v)
+            : _index.remove(v, u);
+        if (_freeEdgeCount == _freeEdges.length) {
+            _freeEdges = Arrays.copyOf(_freeEdges, 2 * _freeEdgeCount);
+        }
+        _freeEdges[_freeEdgeCount] = id;
+        _freeEdgeCount += 1;
+    }
+
+    /** Returns true iff bit V of ROW (which may be null) is set. */
+    private static boolean get(long[] row, int v) {
+        return row != null && (v >>> 6) < row.length
+            && (row[v >>> 6] & (1L << v)) != 0;
+    }
+
+    /** Set bit V of ROW (which may be null), returning ROW or, if it must
+     *  grow, a larger copy. */
+    private static long[] set(long[] row, int v) {
+        int w = v >>> 6;
+        if (row == null) {
+            row = new long[w + 1];
+        } else if (w >= row.length) {
+            row = Arrays.copyOf(row, Math.max(w + 1, 2 * row.length));
+        }
+        row[w] |= 1L << v;
+        return row;
+    }
+
+    /** Clear bit V of ROW, which must be set. */
+    private static void clear(long[] row, int v) {
+        row[v >>> 6] &= ~(1L << v);
+    }
+
+    /** Initial size of arrays indexed by vertex. */
+    private static final int INITIAL_VERTICES = 16;
+    /** A row with no bits set. */
+    private static final long[] EMPTY_ROW = new long[0];
+
+    /** True iff I am directed. */
+    private final boolean _directed;
+    /** My vertices. */
+    private final BitSet _vertexSet;
+    /** Number of vertices. */
+    private int _vertexSize;
+    /** The smallest positive vertex number not in _vertexSet. */
+    private int _freeVertex;
+    /** Successor rows, indexed by vertex (null for empty rows). */
+    private long[][] _out;
+    /** Predecessor rows (the same as _out if undirected). */
+    private long[][] _in;
+    /** Number of successors of each vertex. */
+    private int[] _outDegrees;
+    /** Number of predecessors of each vertex (the same as _outDegrees if
+     *  undirected). */
+    private int[] _inDegrees;
+    /** Maps each edge (u, v) to its id.  Undirected edges are entered
+     *  once, with u <= v. */
+    private final EdgeIndex _index;
+    /** One more than the largest edge id ever given out. */
+    private int _nextEdge;
+    /** Stack of ids of removed edges, available for reuse. */
+    private int[] _freeEdges;
+    /** Number of ids in _freeEdges. */
+    private int _freeEdgeCount;
+    /** Number of edges. */
+    private int _edgeSize;
+}
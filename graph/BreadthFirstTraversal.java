@@ -1,7 +1,5 @@
 package graph;
 
-import java.util.LinkedList;
-
 /* See restrictions in Graph.java. */
 
 /** Implements a breadth-first traversal of a graph.  Generally, the
@@ -13,7 +11,7 @@ public class BreadthFirstTraversal extends Traversal {
 
     /** A breadth-first Traversal of G. */
     protected BreadthFirstTraversal(Graph G) {
-        super(G, new LinkedList<Integer>());
+        super(G, new IntQueue());
     }
 
     @Override
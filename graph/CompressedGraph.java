@@ -0,0 +1,370 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.NoSuchElementException;
+
+/** An immutable, compact snapshot of a Graph for read-mostly use on large
+ *  sparse graphs.  The successors of each vertex are sorted and stored
+ *  as gaps between consecutive values, each gap encoded as a
+ *  variable-length integer (seven bits per byte, high bit set on all but
+ *  the last byte), in one byte array shared by all vertices.  A vertex's
+ *  encoded list starts with its length, and an int array gives the
+ *  position at which each list starts, so that iterating over the
+ *  successors of any vertex costs time proportional to its degree.
+ *  Predecessors of a directed graph are stored the same way.  On graphs
+ *  whose edges mostly join nearby vertex numbers, most entries take one
+ *  byte, several times less than plain int adjacency arrays with edge
+ *  ids.
+ *
+ *  Edges are numbered 1, 2, ... in order of their end points (smaller end
+ *  first, for an undirected graph), so edge ids generally differ from
+ *  those of the original graph.  Finding the id of edge (u, v) takes time
+ *  proportional to the degree of u.  All modifying operations throw
+ *  UnsupportedOperationException.
+ *  @author Eric Huang
+ */
+public class CompressedGraph extends Graph {
+
+    /** A compressed snapshot of the current contents of G. */
+    public CompressedGraph(Graph G) {
+        _directed = G.isDirected();
+        _vertexSet = new BitSet();
+        for (IntIteration verts = G.intVertices(); verts.hasNext(); ) {
+            _vertexSet.set(verts.nextInt());
+        }
+        _maxVertex = Math.max(0, _vertexSet.length() - 1);
+        _vertexSize = _vertexSet.cardinality();
+        _edgeSize = G.edgeSize();
+        _out = new Lists(G, _maxVertex, false);
+        _in = _directed ? new Lists(G, _maxVertex, true) : _out;
+        _firstEdge = new int[_maxVertex + 2];
+        int e = 0;
+        for (int v = 1; v <= _maxVertex; v += 1) {
+            _firstEdge[v] = e;
+            for (IntIteration succs = _out.iterate(v); succs.hasNext(); ) {
+                int w = succs.nextInt();
+                if (_directed || w >= v) {
+                    e += 1;
+                }
+            }
+        }
+        _firstEdge[_maxVertex + 1] = e;
+    }
+
+    @Override
+    public int vertexSize() {
+        return _vertexSize;
+    }
+
+    @Override
+    public int maxVertex() {
+        return _maxVertex;
+    }
+
+    @Override
+    public int edgeSize() {
+        return _edgeSize;
+    }
+
+    @Override
+    public boolean isDirected() {
+        return _directed;
+    }
+
+    @Override
+    public int outDegree(int v) {
+        return contains(v) ? _out.size(v) : 0;
+    }
+
+    @Override
+    public int inDegree(int v) {
+        return contains(v) ? _in.size(v) : 0;
+    }
+
+    @Override
+    public boolean contains(int u) {
+        return u > 0 && _vertexSet.get(u);
+    }
+
+    @Override
+    public boolean contains(int u, int v) {
+        return edgeId(u, v) != 0;
+    }
+
+    @Override
+    public int add() {
+        throw new UnsupportedOperationException("graph is read-only");
+    }
+
+    @Override
+    public int add(int u, int v) {
+        throw new UnsupportedOperationException("graph is read-only");
+    }
+
+    @Override
+    public void remove(int v) {
+        throw new UnsupportedOperationException("graph is read-only");
+    }
+
+    @Override
+    public void remove(int u, int v) {
+        throw new UnsupportedOperationException("graph is read-only");
+    }
+
+    @Override
+    public Iteration<Integer> vertices() {
+        return intVertices();
+    }
+
+    @Override
+    public Iteration<Integer> successors(int v) {
+        return intSuccessors(v);
+    }
+
+    @Override
+    public Iteration<Integer> predecessors(int v) {
+        return intPredecessors(v);
+    }
+
+    @Override
+    public IntIteration intVertices() {
+        return Iteration.setBits(_vertexSet);
+    }
+
+    @Override
+    public IntIteration intSuccessors(int v) {
+        return _out.iterate(contains(v) ? v : 0);
+    }
+
+    @Override
+    public IntIteration intPredecessors(int v) {
+        return _in.iterate(contains(v) ? v : 0);
+    }
+
+    /** Returns an iteration over my edges in order of edge id, delivering
+     *  every edge in the same two-element array. */
+    @Override
+    public Iteration<int[]> edges() {
+        return new Iteration<int[]>() {
+            @Override
+            public boolean hasNext() {
+                if (_v != 0) {
+                    return true;
+                }
+                while (true) {
+                    while (_succs.hasNext()) {
+                        _v = _succs.nextInt();
+                        if (_directed || _v >= _u) {
+                            return true;
+                        }
+                    }
+                    if (_u >= _maxVertex) {
+                        return false;
+                    }
+                    _u += 1;
+                    _succs = _out.iterate(_u);
+                }
+            }
+
+            @Override
+            public int[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                _edge[0] = _u;
+                _edge[1] = _v;
+                _v = 0;
+                return _edge;
+            }
+
+            /** First end of the current edge. */
+            private int _u = 0;
+            /** Second end of the pending edge, or 0 if none. */
+            private int _v;
+            /** Remaining successors of _u. */
+            private IntIteration _succs = _out.iterate(0);
+            /** The array returned by next(). */
+            private final int[] _edge = new int[2];
+        };
+    }
+
+    /** Returns the number of bytes used by my encoded lists, not
+     *  counting the index of their starting positions. */
+    long encodedSize() {
+        return _out.encodedSize() + (_directed ? _in.encodedSize() : 0);
+    }
+
+    @Override
+    protected void checkMyVertex(int v) {
+        if (!contains(v)) {
+            throw new IllegalArgumentException("vertex not from Graph");
+        }
+    }
+
+    @Override
+    protected int edgeId(int u, int v) {
+        if (!_directed && u > v) {
+            int t = u;
+            u = v;
+            v = t;
+        }
+        if (!contains(u)) {
+            return 0;
+        }
+        int rank = _firstEdge[u];
+        for (IntIteration succs = _out.iterate(u); succs.hasNext(); ) {
+            int w = succs.nextInt();
+            if (w == v) {
+                return rank + 1;
+            } else if (w > v) {
+                break;
+            } else if (_directed || w >= u) {
+                rank += 1;
+            }
+        }
+        return 0;
+    }
+
+    /** Sorted, gap-encoded lists of the neighbors of each vertex. */
+    private static final class Lists {
+
+        /** The successors (or predecessors, if INCOMING) of vertices
+         *  1 .. MAXVERTEX of G. */
+        Lists(Graph G, int maxVertex, boolean incoming) {
+            _starts = new int[maxVertex + 1];
+            _bytes = new byte[INITIAL_BYTES];
+            _starts[0] = put(0);
+            int[] nbrs = new int[INITIAL_BYTES];
+            for (int v = 1; v <= maxVertex; v += 1) {
+                int n = 0;
+                if (G.contains(v)) {
+                    IntIteration iter = incoming ? G.intPredecessors(v)
+                        : G.intSuccessors(v);
+                    while (iter.hasNext()) {
+                        if (n == nbrs.length) {
+                            nbrs = Arrays.copyOf(nbrs, 2 * n);
+                        }
+                        nbrs[n] = iter.nextInt();
+                        n += 1;
+                    }
+                }
+                Arrays.sort(nbrs, 0, n);
+                _starts[v] = put(n);
+                int prev = 0;
+                for (int k = 0; k < n; k += 1) {
+                    put(nbrs[k] - prev);
+                    prev = nbrs[k];
+                }
+            }
+            _bytes = Arrays.copyOf(_bytes, _size);
+        }
+
+        /** Returns the length of V's list. */
+        int size(int v) {
+            int p = _starts[v];
+            int x = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = _bytes[p];
+                p += 1;
+                x |= (b & 0x7f) << shift;
+                if (b >= 0) {
+                    return x;
+                }
+            }
+        }
+
+        /** Returns an iteration over V's list. */
+        IntIteration iterate(int v) {
+            return new IntIteration() {
+                @Override
+                public boolean hasNext() {
+                    return _remaining > 0;
+                }
+
+                @Override
+                public int nextInt() {
+                    if (_remaining == 0) {
+                        throw new NoSuchElementException();
+                    }
+                    _remaining -= 1;
+                    _value += decode();
+                    return _value;
+                }
+
+                /** Returns the next encoded value, advancing _p past
+                 *  it. */
+                private int decode() {
+                    int x = 0;
+                    for (int shift = 0; ; shift += 7) {
+                        byte b = _bytes[_p];
+                        _p += 1;
+                        x |= (b & 0x7f) << shift;
+                        if (b >= 0) {
+                            return x;
+                        }
+                    }
+                }
+
+                /** Position of the next encoded value. */
+                private int _p = _starts[v];
+                /** Number of values not yet delivered. */
+                private int _remaining = decode();
+                /** Last value delivered. */
+                private int _value;
+            };
+        }
+
+        /** Returns the number of bytes in my encoded lists. */
+        long encodedSize() {
+            return _bytes.length;
+        }
+
+        /** Append X >= 0 to my encoding.  Returns its position. */
+        private int put(int x) {
+            if (_size + 5 > _bytes.length) {
+                _bytes = Arrays.copyOf(_bytes, 2 * _bytes.length + 5);
+            }
+            int start = _size;
+            while ((x & ~0x7f) != 0) {
+                _bytes[_size] = (byte) ((x & 0x7f) | 0x80);
+                _size += 1;
+                x >>>= 7;
+            }
+            _bytes[_size] = (byte) x;
+            _size += 1;
+            return start;
+        }
+
+        /** Initial size of working arrays. */
+        private static final int INITIAL_BYTES = 64;
+
+        /** Position in _bytes of the encoded list for each vertex (the
+         *  entry for 0 is an empty list). */
+        private final int[] _starts;
+        /** Encoded lists. */
+        private byte[] _bytes;
+        /** Number of bytes of _bytes in use (during construction). */
+        private int _size;
+    }
+
+    /** True iff I am directed. */
+    private final boolean _directed;
+    /** My vertices. */
+    private final BitSet _vertexSet;
+    /** Largest vertex number, or 0 if none. */
+    private final int _maxVertex;
+    /** Number of vertices. */
+    private final int _vertexSize;
+    /** Number of edges. */
+    private final int _edgeSize;
+    /** Successor lists. */
+    private final Lists _out;
+    /** Predecessor lists (the same as _out if undirected). */
+    private final Lists _in;
+    /** Number of edges whose ids precede those of edges from each vertex
+     *  (from its smaller end, if undirected). */
+    private final int[] _firstEdge;
+}
@@ -0,0 +1,441 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/** A directed or undirected graph that may be read and modified by many
+ *  threads at once.  Vertices are divided among a fixed number of
+ *  stripes (vertex v belongs to stripe v mod S), each with its own
+ *  read-write lock guarding the adjacency lists, membership bits, and
+ *  edge index of its vertices.  Adding or removing edge (u, v) locks only
+ *  the stripes of u and v (in increasing order, to avoid deadlock), and
+ *  reading successors(v) takes only a read lock on v's stripe, so writers
+ *  and readers working on different parts of the graph do not contend.
+ *  Allocating and freeing vertex numbers is serialized by a separate
+ *  lock, since add() must find the smallest free number.
+ *
+ *  Iterations returned by vertices(), successors(), predecessors(), and
+ *  edges() are snapshots taken when the method is called; they do not
+ *  reflect later changes.  Iterations over the whole graph (vertices and
+ *  edges) are weakly consistent: they see every change completed before
+ *  they were requested, and perhaps some made concurrently.
+ *
+ *  Edge ids are never reused.  A LabeledGraph built on a ConcurrentGraph is
+ *  not itself thread-safe.
+ *  @author Eric Huang
+ */
+public class ConcurrentGraph extends Graph {
+
+    /** An empty graph, which is directed iff DIRECTED, with a default
+     *  number of lock stripes. */
+    public ConcurrentGraph(boolean directed) {
+        this(directed, DEFAULT_STRIPES);
+    }
+
+    /** An empty graph, which is directed iff DIRECTED, whose vertices
+     *  are divided among at least STRIPES lock stripes. */
+    public ConcurrentGraph(boolean directed, int stripes) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("nonpositive stripe count");
+        }
+        int shift;
+        for (shift = 0; (1 << shift) < stripes; shift += 1) {
+            continue;
+        }
+        _directed = directed;
+        _shift = shift;
+        _stripes = new Stripe[1 << shift];
+        for (int i = 0; i < _stripes.length; i += 1) {
+            _stripes[i] = new Stripe(i, directed);
+        }
+        _allocated = new BitSet();
+        _freeVertex = 1;
+    }
+
+    @Override
+    public int vertexSize() {
+        return _vertexSize.get();
+    }
+
+    @Override
+    public int maxVertex() {
+        synchronized (_allocated) {
+            return Math.max(0, _allocated.length() - 1);
+        }
+    }
+
+    @Override
+    public int edgeSize() {
+        return _edgeSize.get();
+    }
+
+    @Override
+    public boolean isDirected() {
+        return _directed;
+    }
+
+    @Override
+    public int outDegree(int v) {
+        if (v <= 0) {
+            return 0;
+        }
+        Stripe s = stripe(v);
+        s.lock.readLock().lock();
+        try {
+            return s.out.size(local(v));
+        } finally {
+            s.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int inDegree(int v) {
+        if (!_directed) {
+            return outDegree(v);
+        }
+        if (v <= 0) {
+            return 0;
+        }
+        Stripe s = stripe(v);
+        s.lock.readLock().lock();
+        try {
+            return s.in.size(local(v));
+        } finally {
+            s.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean contains(int u) {
+        if (u <= 0) {
+            return false;
+        }
+        Stripe s = stripe(u);
+        s.lock.readLock().lock();
+        try {
+            return s.present.get(local(u));
+        } finally {
+            s.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean contains(int u, int v) {
+        return edgeId(u, v) != 0;
+    }
+
+    @Override
+    public int add() {
+        synchronized (_allocated) {
+            int v = _freeVertex;
+            _allocated.set(v);
+            _freeVertex = _allocated.nextClearBit(v + 1);
+            Stripe s = stripe(v);
+            s.lock.writeLock().lock();
+            try {
+                s.present.set(local(v));
+            } finally {
+                s.lock.writeLock().unlock();
+            }
+            _vertexSize.incrementAndGet();
+            return v;
+        }
+    }
+
+    @Override
+    public int add(int u, int v) {
+        if (u <= 0 || v <= 0) {
+            throw new IllegalArgumentException("Vertices do not exist.");
+        }
+        Stripe su = stripe(u), sv = stripe(v);
+        lockBoth(su, sv);
+        try {
+            if (!su.present.get(local(u)) || !sv.present.get(local(v))) {
+                throw new IllegalArgumentException("Vertices do not exist.");
+            }
+            Stripe owner = indexOwner(u, v);
+            if (indexGet(owner, u, v) != 0) {
+                throw new IllegalArgumentException("Edge already exists.");
+            }
+            int id = _nextEdge.getAndIncrement();
+            su.out.add(local(u), v, id);
+            if (_directed) {
+                sv.in.add(local(v), u, id);
+            } else if (u != v) {
+                sv.out.add(local(v), u, id);
+            }
+            indexPut(owner, u, v, id);
+            _edgeSize.incrementAndGet();
+            return id;
+        } finally {
+            unlockBoth(su, sv);
+        }
+    }
+
+    @Override
+    public void remove(int v) {
+        if (v <= 0) {
+            return;
+        }
+        Stripe s = stripe(v);
+        int[] succs, preds;
+        s.lock.writeLock().lock();
+        try {
+            if (!s.present.get(local(v))) {
+                return;
+            }
+            s.present.clear(local(v));
+            succs = copy(s.out, local(v));
+            preds = _directed ? copy(s.in, local(v)) : new int[0];
+        } finally {
+            s.lock.writeLock().unlock();
+        }
+        for (int w : succs) {
+            remove(v, w);
+        }
+        for (int w : preds) {
+            remove(w, v);
+        }
+        synchronized (_allocated) {
+            _allocated.clear(v);
+            _freeVertex = Math.min(_freeVertex, v);
+            _vertexSize.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void remove(int u, int v) {
+        if (u <= 0 || v <= 0) {
+            return;
+        }
+        Stripe su = stripe(u), sv = stripe(v);
+        lockBoth(su, sv);
+        try {
+            Stripe owner = indexOwner(u, v);
+            if (indexGet(owner, u, v) == 0) {
+                return;
+            }
+            su.out.remove(local(u), v);
+            if (_directed) {
+                sv.in.remove(local(v), u);
+            } else if (u != v) {
+                sv.out.remove(local(v), u);
+            }
+            indexRemove(owner, u, v);
+            _edgeSize.decrementAndGet();
+        } finally {
+            unlockBoth(su, sv);
+        }
+    }
+
+    @Override
+    public Iteration<Integer> vertices() {
+        return intVertices();
+    }
+
+    @Override
+    public Iteration<Integer> successors(int v) {
+        return intSuccessors(v);
+    }
+
+    @Override
+    public Iteration<Integer> predecessors(int v) {
+        return intPredecessors(v);
+    }
+
+    @Override
+    public IntIteration intVertices() {
+        synchronized (_allocated) {
+            return Iteration.setBits((BitSet) _allocated.clone());
+        }
+    }
+
+    @Override
+    public IntIteration intSuccessors(int v) {
+        return neighbors(v, false);
+    }
+
+    @Override
+    public IntIteration intPredecessors(int v) {
+        return neighbors(v, _directed);
+    }
+
+    @Override
+    public Iteration<int[]> edges() {
+        ArrayList<int[]> result = new ArrayList<>();
+        for (int i = 0; i < _stripes.length; i += 1) {
+            Stripe s = _stripes[i];
+            s.lock.readLock().lock();
+            try {
+                for (int k = s.present.nextSetBit(0); k >= 0;
+                     k = s.present.nextSetBit(k + 1)) {
+                    int u = (k << _shift) | i;
+                    for (int j = 0; j < s.out.size(k); j += 1) {
+                        int w = s.out.neighbor(k, j);
+                        if (_directed || u <= w) {
+                            result.add(new int[] { u, w });
+                        }
+                    }
+                }
+            } finally {
+                s.lock.readLock().unlock();
+            }
+        }
+        return Iteration.iteration(result);
+    }
+
+    @Override
+    protected int edgeId(int u, int v) {
+        if (u <= 0 || v <= 0) {
+            return 0;
+        }
+        Stripe owner = indexOwner(u, v);
+        owner.lock.readLock().lock();
+        try {
+            return indexGet(owner, u, v);
+        } finally {
+            owner.lock.readLock().unlock();
+        }
+    }
+
+    /** Returns a snapshot of the successors of V, or its predecessors if
+     *  INCOMING. */
+    private IntIteration neighbors(int v, boolean incoming) {
+        int[] result;
+        if (v <= 0) {
+            result = new int[0];
+        } else {
+            Stripe s = stripe(v);
+            s.lock.readLock().lock();
+            try {
+                result = copy(incoming ? s.in : s.out, local(v));
+            } finally {
+                s.lock.readLock().unlock();
+            }
+        }
+        return IntIteration.range(result, 0, result.length);
+    }
+
+    /** Returns the stripe containing vertex V. */
+    private Stripe stripe(int v) {
+        return _stripes[v & (_stripes.length - 1)];
+    }
+
+    /** Returns the index of V within its stripe. */
+    private int local(int v) {
+        return v >>> _shift;
+    }
+
+    /** Returns the stripe whose edge index holds edge (U, V): that of U,
+     *  or for an undirected edge, that of its smaller end. */
+    private Stripe indexOwner(int u, int v) {
+        return stripe(_directed || u <= v ? u : v);
+    }
+
+    /** Returns the id of (U, V) in OWNER's index, or 0 if absent. */
+    private int indexGet(Stripe owner, int u, int v) {
+        return _directed || u <= v ? owner.index.get(u, v)
+            : owner.index.get(v, u);
+    }
+
+    /** Record ID as the id of (U, V) in OWNER's index. */
+    private void indexPut(Stripe owner, int u, int v, int id) {
+        if (_directed || u <= v) {
+            owner.index.put(u, v, id);
+        } else {
+            owner.index.put(v, u, id);
+        }
+    }
+
+    /** Remove (U, V) from OWNER's index. */
+    private void indexRemove(Stripe owner, int u, int v) {
+        if (_directed || u <= v) {
+            owner.index.remove(u, v);
+        } else {
+            owner.index.remove(v, u);
+        }
+    }
+
+    /** Acquire the write locks of stripes A and B (which may be the same)
+     *  in increasing order of stripe number. */
+    private void lockBoth(Stripe a, Stripe b) {
+        if (a == b) {
+            a.lock.writeLock().lock();
+        } else if (a.number < b.number) {
+            a.lock.writeLock().lock();
+            b.lock.writeLock().lock();
+        } else {
+            b.lock.writeLock().lock();
+            a.lock.writeLock().lock();
+        }
+    }
+
+    /** Release the write locks acquired by lockBoth(A, B). */
+    private void unlockBoth(Stripe a, Stripe b) {
+        a.lock.writeLock().unlock();
+        if (a != b) {
+            b.lock.writeLock().unlock();
+        }
+    }
+
+    /** Returns a copy of the neighbors in list K of LISTS. */
+    private static int[] copy(AdjacencyLists lists, int k) {
+        int[] result = new int[lists.size(k)];
+        for (int j = 0; j < result.length; j += 1) {
+            result[j] = lists.neighbor(k, j);
+        }
+        return result;
+    }
+
+    /** The vertices belonging to one lock stripe, indexed by their
+     *  numbers divided by the number of stripes. */
+    private static final class Stripe {
+        /** An empty stripe numbered NUMBER, for a directed graph iff
+         *  DIRECTED. */
+        Stripe(int number, boolean directed) {
+            this.number = number;
+            present = new BitSet();
+            out = new AdjacencyLists();
+            in = directed ? new AdjacencyLists() : null;
+            index = new EdgeIndex();
+        }
+
+        /** My position in _stripes, which orders lock acquisition. */
+        private final int number;
+        /** Guards all other fields. */
+        private final ReentrantReadWriteLock lock =
+            new ReentrantReadWriteLock();
+        /** Bit k is set iff my k-th vertex is present. */
+        private final BitSet present;
+        /** Outgoing neighbor lists of my vertices. */
+        private final AdjacencyLists out;
+        /** Incoming neighbor lists of my vertices (directed graphs only). */
+        private final AdjacencyLists in;
+        /** Ids of the edges whose owner (see indexOwner) is in me. */
+        private final EdgeIndex index;
+    }
+
+    /** Number of lock stripes used by default. */
+    private static final int DEFAULT_STRIPES = 64;
+
+    /** True iff I am directed. */
+    private final boolean _directed;
+    /** log2 of the number of stripes. */
+    private final int _shift;
+    /** My lock stripes. */
+    private final Stripe[] _stripes;
+    /** Vertex numbers in use; guarded by synchronizing on itself. */
+    private final BitSet _allocated;
+    /** Smallest vertex number not in _allocated; guarded as _allocated. */
+    private int _freeVertex;
+    /** Number of vertices. */
+    private final AtomicInteger _vertexSize = new AtomicInteger();
+    /** Number of edges. */
+    private final AtomicInteger _edgeSize = new AtomicInteger();
+    /** The id to give the next edge added. */
+    private final AtomicInteger _nextEdge = new AtomicInteger(1);
+}
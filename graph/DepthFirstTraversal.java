@@ -2,12 +2,32 @@ package graph;
 
 /* See restrictions in Graph.java. */
 
-import java.util.LinkedList;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.Collection;
 
 /** Implements a depth-first traversal of a graph.  Generally, the
  *  client will extend this class, overriding the visit and
  *  postVisit methods, as desired (by default, they do nothing).
+ *
+ *  Rather than the general fringe-driven loop of Traversal, a
+ *  depth-first traversal keeps an explicit stack of frames, one for each
+ *  vertex on the current path.  Its fringe is a stack of pending
+ *  vertices (an int array).  When a vertex is visited, processSuccessors
+ *  adds its successors to the fringe (by default, those accepted by
+ *  processSuccessor), and its frame records where they start; the frame
+ *  is finished, and the vertex post-visited if shouldPostVisit said so,
+ *  when all of them have been taken off again.  Thus each vertex is
+ *  post-visited exactly once, after all its descendants, and paths of
+ *  any length may be traversed without recursion.  Successors are
+ *  explored in the reverse of the order in which they are added to the
+ *  fringe (as with a LIFO queue), or in that order if reverseSuccessors
+ *  returns true.  The fringe must only be added to, and only from
+ *  processSuccessors.
+ *
+ *  The pending vertices and frames outlive a call of traverse that is
+ *  interrupted by visit or postVisit returning false, so that a later
+ *  call resumes where it stopped, after first exploring any new starting
+ *  vertices it is given.
  *  @author Eric Huang
  */
 public class DepthFirstTraversal extends Traversal {
@@ -16,7 +36,43 @@ public class DepthFirstTraversal extends Traversal {
      * A depth-first Traversal of G.
      */
     protected DepthFirstTraversal(Graph G) {
-        super(G, Collections.asLifoQueue(new LinkedList<Integer>()));
+        this(G, new Pending());
+    }
+
+    /** A depth-first Traversal of G whose fringe is PENDING. */
+    private DepthFirstTraversal(Graph G, Pending pending) {
+        super(G, pending);
+        _pending = pending;
+    }
+
+    /** Perform a depth-first traversal starting from each of the vertices
+     *  of V0 in turn (in reverse order), skipping those already marked,
+     *  and then finish any traversal that was interrupted earlier. */
+    @Override
+    public void traverse(Collection<Integer> V0) {
+        for (int v : V0) {
+            _pending.add(v);
+        }
+        while (true) {
+            if (_depth > 0 && _pending.size() == _starts[_depth - 1]) {
+                _depth -= 1;
+                int v = _vertices[_depth];
+                if (v < 0 && !postVisit(-v)) {
+                    return;
+                }
+            } else if (_pending.isEmpty()) {
+                return;
+            } else {
+                int v = _pending.remove();
+                if (!marked(v)) {
+                    mark(v);
+                    if (!visit(v)) {
+                        return;
+                    }
+                    enter(v);
+                }
+            }
+        }
     }
 
     @Override
@@ -28,4 +84,49 @@ public class DepthFirstTraversal extends Traversal {
     protected boolean postVisit(int v) {
         return super.postVisit(v);
     }
+
+    /** Push a frame for the newly visited vertex V and have
+     *  processSuccessors push its successors onto the pending stack. */
+    private void enter(int v) {
+        if (_depth == _vertices.length) {
+            _vertices = Arrays.copyOf(_vertices, 2 * _depth);
+            _starts = Arrays.copyOf(_starts, 2 * _depth);
+        }
+        int start = _pending.size();
+        _vertices[_depth] = shouldPostVisit(v) ? -v : v;
+        _starts[_depth] = start;
+        _depth += 1;
+        processSuccessors(v);
+        if (reverseSuccessors(v)) {
+            _pending.reverse(start);
+        }
+    }
+
+    /** The stack of pending vertices, which serves as the fringe.  Values
+     *  may not be removed from the middle, since frames record positions
+     *  in the stack. */
+    private static final class Pending extends IntStack {
+        @Override
+        public boolean remove(int v) {
+            throw new UnsupportedOperationException("fringe is a stack");
+        }
+
+        @Override
+        public void clear() {
+            throw new UnsupportedOperationException("fringe is a stack");
+        }
+    }
+
+    /** Initial size of the stacks. */
+    private static final int INITIAL_DEPTH = 16;
+
+    /** Vertices waiting to be explored, topmost last. */
+    private final Pending _pending;
+    /** The vertex of each frame, negated if it is to be post-visited. */
+    private int[] _vertices = new int[INITIAL_DEPTH];
+    /** Position in _pending of the first successor pushed by each
+     *  frame. */
+    private int[] _starts = new int[INITIAL_DEPTH];
+    /** Number of frames. */
+    private int _depth;
 }
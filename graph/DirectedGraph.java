@@ -2,15 +2,30 @@ package graph;
 
 /* See restrictions in Graph.java. */
 
-import java.util.ArrayList;
-
 /** Represents a general unlabeled directed graph whose vertices are denoted by
  *  positive integers. Graphs may have self edges.
  *
+ *  By default, a DirectedGraph also keeps the incoming edges of each
+ *  vertex, so that predecessors(v) takes time proportional to the
+ *  in-degree of v.  Graphs that are written often but never asked for
+ *  predecessors may turn this index off to save its memory and upkeep;
+ *  predecessors(v) then scans all edges.
+ *
  *  @author Eric Huang
  */
 public class DirectedGraph extends GraphObj {
 
+    /** An empty directed graph that indexes predecessors. */
+    public DirectedGraph() {
+        this(true);
+    }
+
+    /** An empty directed graph that indexes predecessors iff
+     *  PREDECESSORINDEX. */
+    public DirectedGraph(boolean predecessorIndex) {
+        super(predecessorIndex);
+    }
+
     @Override
     public boolean isDirected() {
         return true;
@@ -18,25 +33,16 @@ public class DirectedGraph extends GraphObj {
 
     @Override
     public int inDegree(int v) {
-        int edges = 0;
-        if (contains(v)) {
-            for (int[] element : edges()) {
-                if (element[1] == v) {
-                    edges++;
-                }
-            }
-        }
-        return edges;
+        return contains(v) ? inCount(v) : 0;
     }
 
     @Override
     public Iteration<Integer> predecessors(int v) {
-        ArrayList<Integer> predecessors = new ArrayList<Integer>();
-        for (int[] element : edges()) {
-            if (element[1] == v) {
-                predecessors.add(element[0]);
-            }
-        }
-        return Iteration.iteration(predecessors);
+        return incoming(v);
+    }
+
+    @Override
+    public IntIteration intPredecessors(int v) {
+        return incoming(v);
     }
 }
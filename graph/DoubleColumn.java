@@ -0,0 +1,85 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+
+/** A LabelColumn of Doubles, kept unboxed in a double array, with NaN
+ *  standing for a missing (null) label.  All other operations are
+ *  carried out through getDouble, setDouble, capacity, and reserve, so a
+ *  subtype may keep its values elsewhere by overriding just those.
+ *  @author Eric Huang
+ */
+public class DoubleColumn extends LabelColumn<Double> {
+
+    /** Returns the label at index I, or NaN if none. */
+    public double getDouble(int i) {
+        return i < _values.length ? _values[i] : Double.NaN;
+    }
+
+    /** Set the label at index I to X (NaN to remove it). */
+    public void setDouble(int i, double x) {
+        if (i >= _values.length) {
+            if (Double.isNaN(x)) {
+                return;
+            }
+            reserve(i + 1);
+        }
+        _values[i] = x;
+    }
+
+    /** Set the label at index IDS[k] to VALUES[k], for all k.  The arrays
+     *  must have the same length. */
+    public void setAll(int[] ids, double[] values) {
+        reserve(checkSizes(ids, values.length) + 1);
+        for (int k = 0; k < ids.length; k += 1) {
+            setDouble(ids[k], values[k]);
+        }
+    }
+
+    @Override
+    public Double get(int i) {
+        double x = getDouble(i);
+        return Double.isNaN(x) ? null : x;
+    }
+
+    @Override
+    public void set(int i, Double x) {
+        setDouble(i, x == null ? Double.NaN : x);
+    }
+
+    @Override
+    public int capacity() {
+        return _values.length;
+    }
+
+    @Override
+    void reserve(int n) {
+        if (n > _values.length) {
+            int old = _values.length;
+            _values = Arrays.copyOf(_values, grow(old, n));
+            Arrays.fill(_values, old, _values.length, Double.NaN);
+        }
+    }
+
+    @Override
+    void renumber(int[] renumbering, int size) {
+        double[] values = new double[size + 1];
+        Arrays.fill(values, Double.NaN);
+        int n = Math.min(renumbering.length, capacity());
+        for (int i = 0; i < n; i += 1) {
+            if (renumbering[i] != 0) {
+                values[renumbering[i]] = getDouble(i);
+            }
+        }
+        for (int i = 0, m = Math.max(capacity(), size + 1); i < m; i += 1) {
+            setDouble(i, i <= size ? values[i] : Double.NaN);
+        }
+    }
+
+    /** Labels, indexed by vertex number or edge id. */
+    private double[] _values = EMPTY;
+
+    /** An empty array of labels. */
+    private static final double[] EMPTY = new double[0];
+}
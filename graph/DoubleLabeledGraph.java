@@ -0,0 +1,77 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+/** A LabeledGraph whose vertex and edge labels are doubles, kept in
+ *  DoubleColumns indexed directly by vertex number and edge id.  NaN
+ *  stands for a missing (null) label.  Besides the usual LabeledGraph
+ *  methods, which box and unbox labels, getDouble and setDouble read and
+ *  write labels without allocating, which suits weights and distances in
+ *  algorithms such as ShortestPaths.
+ *  @author Eric Huang
+ */
+public class DoubleLabeledGraph extends LabeledGraph<Double, Double> {
+
+    /** A labeling of the graph G, as for LabeledGraph(G). */
+    public DoubleLabeledGraph(Graph G) {
+        this(G, new DoubleColumn(), new DoubleColumn());
+    }
+
+    /** A labeling of the graph G whose vertex and edge labels are kept in
+     *  VLABELS and ELABELS, which should be empty. */
+    DoubleLabeledGraph(Graph G, DoubleColumn vlabels, DoubleColumn elabels) {
+        super(G, vlabels, elabels);
+        _vlabels = vlabels;
+        _elabels = elabels;
+    }
+
+    /** Returns the label on vertex V, which must be one of my vertices,
+     *  or NaN if it has none. */
+    public double getDouble(int v) {
+        checkMyVertex(v);
+        return _vlabels.getDouble(v);
+    }
+
+    /** Returns the label on the edge (U, V), which must be one of my
+     *  edges, or NaN if it has none. */
+    public double getDouble(int u, int v) {
+        return _elabels.getDouble(existingEdge(u, v));
+    }
+
+    /** Set the label of vertex V, which must be one of my vertices, to
+     *  LAB (NaN for none). */
+    public void setDouble(int v, double lab) {
+        checkMyVertex(v);
+        _vlabels.setDouble(v, lab);
+    }
+
+    /** Set the label of edge (U, V), which must be one of my edges, to
+     *  LAB (NaN for none). */
+    public void setDouble(int u, int v, double lab) {
+        _elabels.setDouble(existingEdge(u, v), lab);
+    }
+
+    /** Set getDouble(VERTICES[k]) to LABELS[k], for all k.  The arrays
+     *  must have the same length, and VERTICES must all be my
+     *  vertices. */
+    public void setDoubles(int[] vertices, double[] labels) {
+        for (int v : vertices) {
+            checkMyVertex(v);
+        }
+        _vlabels.setAll(vertices, labels);
+    }
+
+    /** Returns the id of edge (U, V), which must exist. */
+    private int existingEdge(int u, int v) {
+        int e = edgeId(u, v);
+        if (e == 0) {
+            throw new IllegalArgumentException("no such edge");
+        }
+        return e;
+    }
+
+    /** Vertex labels, indexed by vertex number. */
+    private final DoubleColumn _vlabels;
+    /** Edge labels, indexed by edge id. */
+    private final DoubleColumn _elabels;
+}
@@ -0,0 +1,134 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+/** A hash table mapping vertex pairs (U, V) to positive edge ids.  Each
+ *  pair is packed into a single long key, and the table uses open
+ *  addressing with linear probing over parallel primitive arrays, so
+ *  lookups, insertions, and deletions take expected constant time without
+ *  allocating.  Vertex numbers must be positive.
+ *  @author Eric Huang
+ */
+final class EdgeIndex {
+
+    /** An empty index. */
+    EdgeIndex() {
+        _keys = new long[INITIAL_CAPACITY];
+        _ids = new int[INITIAL_CAPACITY];
+    }
+
+    /** Returns the number of pairs in me. */
+    int size() {
+        return _size;
+    }
+
+    /** Returns the id stored for (U, V), or 0 if there is none. */
+    int get(int u, int v) {
+        long key = key(u, v);
+        int mask = _keys.length - 1;
+        for (int i = slot(key, mask); _ids[i] != 0; i = (i + 1) & mask) {
+            if (_keys[i] == key) {
+                return _ids[i];
+            }
+        }
+        return 0;
+    }
+
+    /** Set the id stored for (U, V) to ID, which must be positive. */
+    void put(int u, int v, int id) {
+        long key = key(u, v);
+        int mask = _keys.length - 1;
+        int i;
+        for (i = slot(key, mask); _ids[i] != 0; i = (i + 1) & mask) {
+            if (_keys[i] == key) {
+                _ids[i] = id;
+                return;
+            }
+        }
+        _keys[i] = key;
+        _ids[i] = id;
+        _size += 1;
+        if (2 * _size > _keys.length) {
+            resize(2 * _keys.length);
+        }
+    }
+
+    /** Remove the entry for (U, V), if any.  Returns its id, or 0 if
+     *  there was none. */
+    int remove(int u, int v) {
+        long key = key(u, v);
+        int mask = _keys.length - 1;
+        int i;
+        for (i = slot(key, mask); _ids[i] != 0; i = (i + 1) & mask) {
+            if (_keys[i] == key) {
+                break;
+            }
+        }
+        int id = _ids[i];
+        if (id == 0) {
+            return 0;
+        }
+        _size -= 1;
+        for (int j = (i + 1) & mask; _ids[j] != 0; j = (j + 1) & mask) {
+            int home = slot(_keys[j], mask);
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                _keys[i] = _keys[j];
+                _ids[i] = _ids[j];
+                i = j;
+            }
+        }
+        _ids[i] = 0;
+        _keys[i] = 0;
+        return id;
+    }
+
+    /** Replace each id E in me by RENUMBERING[E]. */
+    void renumber(int[] renumbering) {
+        for (int i = 0; i < _ids.length; i += 1) {
+            if (_ids[i] != 0) {
+                _ids[i] = renumbering[_ids[i]];
+            }
+        }
+    }
+
+    /** Returns the packed key for (U, V). */
+    static long key(int u, int v) {
+        return ((long) u << Integer.SIZE) | (v & 0xffffffffL);
+    }
+
+    /** Returns the home slot of KEY in a table whose size is MASK + 1. */
+    private static int slot(long key, int mask) {
+        long h = key * 0x9e3779b97f4a7c15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    /** Rehash all entries into tables of size N, a power of 2. */
+    private void resize(int n) {
+        long[] keys = _keys;
+        int[] ids = _ids;
+        int mask = n - 1;
+        _keys = new long[n];
+        _ids = new int[n];
+        for (int j = 0; j < keys.length; j += 1) {
+            if (ids[j] != 0) {
+                int i;
+                for (i = slot(keys[j], mask); _ids[i] != 0;
+                     i = (i + 1) & mask) {
+                    continue;
+                }
+                _keys[i] = keys[j];
+                _ids[i] = ids[j];
+            }
+        }
+    }
+
+    /** Initial table size (a power of 2). */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** Packed keys, indexed by slot. */
+    private long[] _keys;
+    /** Ids parallel to _keys; 0 marks an empty slot. */
+    private int[] _ids;
+    /** Number of entries in use. */
+    private int _size;
+}
@@ -0,0 +1,278 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.NoSuchElementException;
+
+/** An immutable snapshot of a Graph in compressed-sparse-row form.  The
+ *  successors of all vertices are packed into a single int array, with a
+ *  second array giving the offset at which each vertex's successors
+ *  start; predecessors are kept the same way.  Edge ids are those of the
+ *  original graph, so labels keyed by edge id (as in LabeledGraph) remain
+ *  valid.  Since nothing changes after construction, a FrozenGraph may be
+ *  read by any number of threads at once.  All modifying operations throw
+ *  UnsupportedOperationException.
+ *  @author Eric Huang
+ */
+public class FrozenGraph extends Graph {
+
+    /** A snapshot of the current contents of G, which may be any Graph
+     *  (including a LabeledGraph or other GraphFilter). */
+    public FrozenGraph(Graph G) {
+        _directed = G.isDirected();
+        _vertexSet = new BitSet();
+        int maxv = 0;
+        for (int v : G.vertices()) {
+            _vertexSet.set(v);
+            maxv = Math.max(maxv, v);
+        }
+        _maxVertex = maxv;
+        _vertexSize = _vertexSet.cardinality();
+
+        int[] offsets = new int[maxv + 2];
+        int[] targets = new int[Math.max(1, G.edgeSize())];
+        int[] ids = new int[targets.length];
+        int n = 0;
+        for (int v = 1; v <= maxv; v += 1) {
+            offsets[v] = n;
+            if (_vertexSet.get(v)) {
+                for (int w : G.successors(v)) {
+                    if (n == targets.length) {
+                        targets = Arrays.copyOf(targets, 2 * n);
+                        ids = Arrays.copyOf(ids, 2 * n);
+                    }
+                    targets[n] = w;
+                    ids[n] = G.edgeId(v, w);
+                    n += 1;
+                }
+            }
+        }
+        offsets[maxv + 1] = n;
+        _outOffsets = offsets;
+        _outTargets = Arrays.copyOf(targets, n);
+        _outIds = Arrays.copyOf(ids, n);
+
+        if (_directed) {
+            _edgeSize = n;
+            _inOffsets = new int[maxv + 2];
+            _inSources = new int[n];
+            reverse();
+        } else {
+            int selfEdges = 0;
+            for (int v = 1; v <= maxv; v += 1) {
+                for (int k = _outOffsets[v]; k < _outOffsets[v + 1]; k += 1) {
+                    if (_outTargets[k] == v) {
+                        selfEdges += 1;
+                    }
+                }
+            }
+            _edgeSize = (n + selfEdges) / 2;
+            _inOffsets = _outOffsets;
+            _inSources = _outTargets;
+        }
+    }
+
+    @Override
+    public int vertexSize() {
+        return _vertexSize;
+    }
+
+    @Override
+    public int maxVertex() {
+        return _maxVertex;
+    }
+
+    @Override
+    public int edgeSize() {
+        return _edgeSize;
+    }
+
+    @Override
+    public boolean isDirected() {
+        return _directed;
+    }
+
+    @Override
+    public int outDegree(int v) {
+        return contains(v) ? _outOffsets[v + 1] - _outOffsets[v] : 0;
+    }
+
+    @Override
+    public int inDegree(int v) {
+        return contains(v) ? _inOffsets[v + 1] - _inOffsets[v] : 0;
+    }
+
+    @Override
+    public boolean contains(int u) {
+        return u > 0 && u <= _maxVertex && _vertexSet.get(u);
+    }
+
+    @Override
+    public boolean contains(int u, int v) {
+        return edgeId(u, v) != 0;
+    }
+
+    @Override
+    public int add() {
+        throw frozen();
+    }
+
+    @Override
+    public int add(int u, int v) {
+        throw frozen();
+    }
+
+    @Override
+    public void remove(int v) {
+        throw frozen();
+    }
+
+    @Override
+    public void remove(int u, int v) {
+        throw frozen();
+    }
+
+    @Override
+    public Iteration<Integer> vertices() {
+        return intVertices();
+    }
+
+    @Override
+    public Iteration<Integer> successors(int v) {
+        return intSuccessors(v);
+    }
+
+    @Override
+    public Iteration<Integer> predecessors(int v) {
+        return intPredecessors(v);
+    }
+
+    @Override
+    public IntIteration intVertices() {
+        return Iteration.setBits(_vertexSet);
+    }
+
+    @Override
+    public IntIteration intSuccessors(int v) {
+        return range(_outTargets, _outOffsets, v);
+    }
+
+    @Override
+    public IntIteration intPredecessors(int v) {
+        return range(_inSources, _inOffsets, v);
+    }
+
+    @Override
+    public Iteration<int[]> edges() {
+        return new Iteration<int[]>() {
+            @Override
+            public boolean hasNext() {
+                advance();
+                return _k < _outTargets.length;
+            }
+
+            @Override
+            public int[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                _edge[0] = _u;
+                _edge[1] = _outTargets[_k];
+                _k += 1;
+                return _edge;
+            }
+
+            /** Move _k to the next entry to be delivered (skipping the
+             *  second copy of each undirected edge), and _u to its
+             *  source. */
+            private void advance() {
+                while (_k < _outTargets.length) {
+                    while (_k >= _outOffsets[_u + 1]) {
+                        _u += 1;
+                    }
+                    if (_directed || _u <= _outTargets[_k]) {
+                        return;
+                    }
+                    _k += 1;
+                }
+            }
+
+            /** Source vertex of the entry at _k. */
+            private int _u = 0;
+            /** Index in _outTargets of the next candidate entry. */
+            private int _k = 0;
+            /** The array returned by next(). */
+            private final int[] _edge = new int[2];
+        };
+    }
+
+    @Override
+    protected int edgeId(int u, int v) {
+        if (contains(u)) {
+            for (int k = _outOffsets[u]; k < _outOffsets[u + 1]; k += 1) {
+                if (_outTargets[k] == v) {
+                    return _outIds[k];
+                }
+            }
+        }
+        return 0;
+    }
+
+    /** Fill in the reverse (predecessor) arrays from the forward ones by
+     *  a counting sort on destination vertex. */
+    private void reverse() {
+        int[] counts = _inOffsets;
+        for (int w : _outTargets) {
+            counts[w + 1] += 1;
+        }
+        for (int v = 1; v < counts.length; v += 1) {
+            counts[v] += counts[v - 1];
+        }
+        int[] fill = Arrays.copyOf(counts, counts.length);
+        for (int u = 1; u <= _maxVertex; u += 1) {
+            for (int k = _outOffsets[u]; k < _outOffsets[u + 1]; k += 1) {
+                int w = _outTargets[k];
+                _inSources[fill[w]] = u;
+                fill[w] += 1;
+            }
+        }
+    }
+
+    /** Returns an iteration over the entries of VALUES belonging to vertex
+     *  V, according to OFFSETS. */
+    private IntIteration range(int[] values, int[] offsets, int v) {
+        if (!contains(v)) {
+            return IntIteration.range(values, 0, 0);
+        }
+        return IntIteration.range(values, offsets[v], offsets[v + 1]);
+    }
+
+    /** Returns the exception thrown by attempts to modify me. */
+    private static UnsupportedOperationException frozen() {
+        return new UnsupportedOperationException("graph is frozen");
+    }
+
+    /** True iff I am directed. */
+    private final boolean _directed;
+    /** My vertices. */
+    private final BitSet _vertexSet;
+    /** My maximum vertex number. */
+    private final int _maxVertex;
+    /** Number of vertices. */
+    private final int _vertexSize;
+    /** Number of edges. */
+    private final int _edgeSize;
+    /** _outTargets[_outOffsets[v] .. _outOffsets[v + 1] - 1] are the
+     *  successors of v. */
+    private final int[] _outOffsets;
+    /** Successors of all vertices, grouped by vertex. */
+    private final int[] _outTargets;
+    /** Edge ids parallel to _outTargets. */
+    private final int[] _outIds;
+    /** As for _outOffsets, but for predecessors. */
+    private final int[] _inOffsets;
+    /** Predecessors of all vertices, grouped by vertex. */
+    private final int[] _inSources;
+}
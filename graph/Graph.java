@@ -74,6 +74,27 @@ public abstract class Graph {
     /** Remove edge (U, V) from me, if present. */
     public abstract void remove(int u, int v);
 
+    /** Remove each of VERTICES that is present, and all adjacent edges.
+     *  This default simply removes each in turn; subclasses may remove
+     *  them together more quickly. */
+    public void removeAll(int[] vertices) {
+        for (int v : vertices) {
+            remove(v);
+        }
+    }
+
+    /** Remove each edge (PAIRS[2k], PAIRS[2k+1]) that is present.  PAIRS
+     *  must have even length.  This default simply removes each in
+     *  turn. */
+    public void removeEdges(int[] pairs) {
+        if (pairs.length % 2 != 0) {
+            throw new IllegalArgumentException("odd number of end points");
+        }
+        for (int k = 0; k < pairs.length; k += 2) {
+            remove(pairs[k], pairs[k + 1]);
+        }
+    }
+
     /** Returns an Iteration over all vertices in numerical order. */
     public abstract Iteration<Integer> vertices();
 
@@ -91,6 +112,24 @@ public abstract class Graph {
         return successors(v);
     }
 
+    /** Returns an iteration over vertices(), whose nextInt method delivers
+     *  vertices without boxing.  This default simply unboxes the values
+     *  from vertices(); subclasses may override it to avoid boxing
+     *  altogether. */
+    public IntIteration intVertices() {
+        return IntIteration.of(vertices());
+    }
+
+    /** Returns an iteration over successors(V), as for intVertices. */
+    public IntIteration intSuccessors(int v) {
+        return IntIteration.of(successors(v));
+    }
+
+    /** Returns an iteration over predecessors(V), as for intVertices. */
+    public IntIteration intPredecessors(int v) {
+        return IntIteration.of(predecessors(v));
+    }
+
     /** Returns an iteration over all edges in me.  Edges are returned
      *  as two-element arrays (u, v), which are directed if the graph
      *  is.  The values in the array returned by .next() may have changed
@@ -100,6 +139,36 @@ public abstract class Graph {
 
     /* Non-public methods for internal use. */
 
+    /** Add vertices 1 .. N and the COUNT edges packed (as by
+     *  EdgeIndex.key) in EDGES[0 .. COUNT-1].  Requires that I be empty
+     *  and that the edges be distinct, with u <= v if I am undirected.
+     *  This default simply adds each vertex and edge in turn; subclasses
+     *  may load them more directly. */
+    void load(int n, long[] edges, int count) {
+        for (int i = 1; i <= n; i += 1) {
+            add();
+        }
+        for (int k = 0; k < count; k += 1) {
+            add((int) (edges[k] >>> Integer.SIZE), (int) edges[k]);
+        }
+    }
+
+    /** Renumber my edges so that their ids are 1 .. edgeSize(), keeping
+     *  their relative order.  Returns an array mapping each old edge id to
+     *  its new one (0 for unused ids), or null if ids are unchanged.  This
+     *  default does nothing and returns null. */
+    int[] compactEdges() {
+        return null;
+    }
+
+    /** Returns true iff intPredecessors(V) takes time proportional to the
+     *  number of predecessors of V (plus perhaps the number of vertices),
+     *  rather than requiring a scan of all edges.  This default returns
+     *  true. */
+    boolean indexesPredecessors() {
+        return true;
+    }
+
     /** Throw exception if V is not one of my vertices. */
     protected void checkMyVertex(int v) {
         if (!contains(v)) {
@@ -0,0 +1,239 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+
+/** Accumulates the vertices and edges of a graph and then builds it in one
+ *  step.  Vertices are numbered 1, 2, ... in the order they are added.
+ *  Edges may be added singly or in batches given as parallel int arrays
+ *  of end points, optionally with a parallel array of labels.  When the
+ *  graph is built, the edges are sorted and duplicates dropped in a
+ *  single pass, so building a graph with E edges takes O(E log E) time
+ *  and needs no per-edge duplicate checks.  Edges are entered in order
+ *  of their end points, so the successors of each vertex come out in
+ *  increasing order.  If an edge is added more than once with labels,
+ *  the last label given wins (null, if the last addition had none), as
+ *  for the same sequence of LabeledGraph.add(u, v, lab) calls.
+ *
+ *  VL and EL are the types of vertex and edge labels; they are used only
+ *  when building a LabeledGraph.
+ *  @author Eric Huang
+ */
+public class GraphBuilder<VL, EL> {
+
+    /** A builder for an empty graph, which is directed iff DIRECTED. */
+    public GraphBuilder(boolean directed) {
+        _directed = directed;
+        _us = new int[INITIAL_EDGES];
+        _vs = new int[INITIAL_EDGES];
+    }
+
+    /** Add N unlabeled vertices.  Returns the number of the first. */
+    public int addVertices(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("negative vertex count");
+        }
+        int first = _vertexCount + 1;
+        _vertexCount += n;
+        return first;
+    }
+
+    /** Add a vertex labeled LAB.  Returns its number. */
+    public int addVertex(VL lab) {
+        int v = addVertices(1);
+        if (lab != null) {
+            if (_vlabels == null) {
+                _vlabels = new Object[Math.max(INITIAL_EDGES, v + 1)];
+            } else if (v >= _vlabels.length) {
+                _vlabels = Arrays.copyOf(_vlabels,
+                                         Math.max(v + 1, 2 * _vlabels.length));
+            }
+            _vlabels[v] = lab;
+        }
+        return v;
+    }
+
+    /** Add the edge (U, V). */
+    public void addEdge(int u, int v) {
+        addEdge(u, v, null);
+    }
+
+    /** Add the edge (U, V), labeled LAB. */
+    public void addEdge(int u, int v, EL lab) {
+        reserve(_edgeCount + 1, lab != null);
+        _us[_edgeCount] = u;
+        _vs[_edgeCount] = v;
+        if (lab != null) {
+            _elabels[_edgeCount] = lab;
+        }
+        _edgeCount += 1;
+    }
+
+    /** Add the edges (US[k], VS[k]), for all k.  US and VS must have the
+     *  same length. */
+    public void addEdges(int[] us, int[] vs) {
+        addEdges(us, vs, null);
+    }
+
+    /** Add the edges (US[k], VS[k]), labeled LABELS[k], for all k.  The
+     *  arrays must have the same length.  LABELS may be null, in which
+     *  case the edges are unlabeled. */
+    public void addEdges(int[] us, int[] vs, EL[] labels) {
+        int n = us.length;
+        if (vs.length != n || (labels != null && labels.length != n)) {
+            throw new IllegalArgumentException("edge arrays differ in size");
+        }
+        reserve(_edgeCount + n, labels != null);
+        System.arraycopy(us, 0, _us, _edgeCount, n);
+        System.arraycopy(vs, 0, _vs, _edgeCount, n);
+        if (labels != null) {
+            System.arraycopy(labels, 0, _elabels, _edgeCount, n);
+        }
+        _edgeCount += n;
+    }
+
+    /** Returns a new graph containing my vertices and edges, whose
+     *  representation is chosen by newGraph according to their numbers. */
+    public Graph build() {
+        Graph G = newGraph(_directed, _vertexCount, _edgeCount);
+        fill(G);
+        return G;
+    }
+
+    /** Returns a new, empty graph, directed iff DIRECTED, suited to
+     *  holding about VERTICES vertices and EDGES edges.  This is a
+     *  BitmapGraph if there are few enough vertices and enough edges
+     *  that an adjacency matrix, together with the EdgeIndex that a
+     *  BitmapGraph keeps for edge ids, takes no more space (by the
+     *  estimates below) than adjacency lists would, and otherwise a
+     *  DirectedGraph or UndirectedGraph. */
+    public static Graph newGraph(boolean directed, int vertices,
+                                 long edges) {
+        long matrixBytes = (long) vertices * vertices / Byte.SIZE;
+        if (directed) {
+            matrixBytes *= 2;
+        }
+        matrixBytes += edges * INDEX_BYTES_PER_EDGE;
+        if (vertices <= MAX_BITMAP_VERTICES
+            && matrixBytes <= edges * SPARSE_BYTES_PER_EDGE) {
+            return new BitmapGraph(directed);
+        }
+        return directed ? new DirectedGraph() : new UndirectedGraph();
+    }
+
+    /** Returns a new LabeledGraph containing my vertices and edges, with
+     *  their labels. */
+    public LabeledGraph<VL, EL> buildLabeled() {
+        LabeledGraph<VL, EL> G = new LabeledGraph<>(build());
+        setLabels(G);
+        return G;
+    }
+
+    /** Add my vertices and edges to G, which must be empty and have the
+     *  same directedness as me.  Labels are ignored. */
+    public void fill(Graph G) {
+        if (G.vertexSize() != 0) {
+            throw new IllegalArgumentException("graph is not empty");
+        }
+        if (G.isDirected() != _directed) {
+            throw new IllegalArgumentException("graph has wrong type");
+        }
+        long[] edges = new long[_edgeCount];
+        for (int k = 0; k < _edgeCount; k += 1) {
+            int u = _us[k], v = _vs[k];
+            if (u <= 0 || u > _vertexCount || v <= 0 || v > _vertexCount) {
+                throw new IllegalArgumentException("Vertices do not exist.");
+            }
+            if (_directed || u <= v) {
+                edges[k] = EdgeIndex.key(u, v);
+            } else {
+                edges[k] = EdgeIndex.key(v, u);
+            }
+        }
+        Arrays.sort(edges);
+        int m = 0;
+        for (int k = 0; k < edges.length; k += 1) {
+            if (m == 0 || edges[k] != edges[m - 1]) {
+                edges[m] = edges[k];
+                m += 1;
+            }
+        }
+        G.load(_vertexCount, edges, m);
+    }
+
+    /** Add my vertices and edges to G, as for fill(Graph), and give them
+     *  their labels. */
+    public void fill(LabeledGraph<VL, EL> G) {
+        fill((Graph) G);
+        setLabels(G);
+    }
+
+    /** Label the vertices and edges of G, which contains my vertices and
+     *  edges, with my labels. */
+    @SuppressWarnings("unchecked")
+    private void setLabels(LabeledGraph<VL, EL> G) {
+        if (_vlabels != null) {
+            int n = Math.min(_vertexCount + 1, _vlabels.length);
+            int[] vertices = new int[n - 1];
+            for (int v = 1; v < n; v += 1) {
+                vertices[v - 1] = v;
+            }
+            G.setLabels(vertices, (VL[]) Arrays.copyOfRange(_vlabels, 1, n));
+        }
+        if (_elabels != null) {
+            int[] pairs = new int[2 * _edgeCount];
+            for (int k = 0; k < _edgeCount; k += 1) {
+                pairs[2 * k] = _us[k];
+                pairs[2 * k + 1] = _vs[k];
+            }
+            G.setEdgeLabels(pairs,
+                            (EL[]) Arrays.copyOf(_elabels, _edgeCount));
+        }
+    }
+
+    /** Make room for N edges, including room for labels if LABELED. */
+    private void reserve(int n, boolean labeled) {
+        if (n > _us.length) {
+            int size = Math.max(n, 2 * _us.length);
+            _us = Arrays.copyOf(_us, size);
+            _vs = Arrays.copyOf(_vs, size);
+            if (_elabels != null) {
+                _elabels = Arrays.copyOf(_elabels, size);
+            }
+        }
+        if (labeled && _elabels == null) {
+            _elabels = new Object[_us.length];
+        }
+    }
+
+    /** Largest number of vertices for which newGraph will choose an
+     *  adjacency matrix. */
+    private static final int MAX_BITMAP_VERTICES = 8192;
+    /** Approximate number of bytes taken by an edge's entry in an
+     *  EdgeIndex (12-byte slots, of which between 2 and 4 per entry). */
+    private static final int INDEX_BYTES_PER_EDGE = 36;
+    /** Approximate number of bytes taken by an edge in a DirectedGraph or
+     *  UndirectedGraph: two adjacency entries of neighbor and id, the
+     *  edge table, and the index. */
+    private static final int SPARSE_BYTES_PER_EDGE =
+        24 + INDEX_BYTES_PER_EDGE;
+
+    /** Number of edge slots allocated initially. */
+    private static final int INITIAL_EDGES = 16;
+
+    /** True iff I build directed graphs. */
+    private final boolean _directed;
+    /** Number of vertices added so far. */
+    private int _vertexCount;
+    /** Vertex labels, indexed by vertex number, or null if none given. */
+    private Object[] _vlabels;
+    /** First ends of the edges added so far. */
+    private int[] _us;
+    /** Second ends of the edges added so far. */
+    private int[] _vs;
+    /** Labels parallel to _us and _vs, or null if none given. */
+    private Object[] _elabels;
+    /** Number of edges added so far. */
+    private int _edgeCount;
+}
@@ -0,0 +1,202 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/** Reading and writing graphs in a binary file format that may be loaded
+ *  by mapping it into memory, so that loading takes nearly constant time
+ *  and pages of the file are read only as they are needed.
+ *
+ *  A file consists of a fixed-size header followed by a sequence of
+ *  arrays, all big-endian.  The header holds a magic number, the format
+ *  version, flags (directed, has vertex labels, has edge labels), the
+ *  largest vertex number N, and the numbers of vertices, edges, adjacency
+ *  entries A, and the largest edge id M.  The arrays are: a bit map of
+ *  the vertices present (longs); the successors of each vertex in
+ *  compressed-sparse-row form, as N + 2 long offsets followed by A int
+ *  targets and A int edge ids, with each vertex's successors in
+ *  increasing order; for directed graphs, the predecessors in the same
+ *  form (without ids); and optionally the vertex labels (N + 1 doubles)
+ *  and edge labels (M + 1 doubles, by edge id), with NaN for none.
+ *  @author Eric Huang
+ */
+public final class GraphFile {
+
+    /** Not instantiable. */
+    private GraphFile() {
+    }
+
+    /** Write G to FILE. */
+    public static void write(Graph G, File file) throws IOException {
+        write(G, null, file);
+    }
+
+    /** Write G, including its labels, to FILE. */
+    public static void write(LabeledGraph<? extends Number,
+                                          ? extends Number> G,
+                             File file) throws IOException {
+        write(G, G, file);
+    }
+
+    /** Returns a read-only view of the graph in FILE, which must have
+     *  been written by write. */
+    public static MappedGraph load(File file) throws IOException {
+        try (FileChannel channel =
+             FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            return new MappedGraph(channel);
+        }
+    }
+
+    /** Write G to FILE, with the labels of LABELS (which is either G or
+     *  null, for none). */
+    private static void write(Graph G,
+                              LabeledGraph<? extends Number,
+                                           ? extends Number> labels,
+                              File file) throws IOException {
+        int n = G.maxVertex();
+        long[] present = new long[(n >>> 6) + 1];
+        long arcs;
+        arcs = 0;
+        for (int v = 1; v <= n; v += 1) {
+            if (G.contains(v)) {
+                present[v >>> 6] |= 1L << v;
+                arcs += G.outDegree(v);
+            }
+        }
+        int maxEdge = 0;
+        for (int[] e : G.edges()) {
+            maxEdge = Math.max(maxEdge, G.edgeId(e[0], e[1]));
+        }
+        int flags = (G.isDirected() ? DIRECTED : 0)
+            | (labels != null ? VERTEX_LABELS | EDGE_LABELS : 0);
+
+        try (DataOutputStream out =
+             new DataOutputStream(new BufferedOutputStream(
+                 new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(flags);
+            out.writeInt(n);
+            out.writeLong(G.vertexSize());
+            out.writeLong(G.edgeSize());
+            out.writeLong(arcs);
+            out.writeLong(maxEdge);
+            for (int i = 0; i < HEADER_RESERVED; i += 1) {
+                out.writeLong(0);
+            }
+            for (long bits : present) {
+                out.writeLong(bits);
+            }
+            writeOffsets(G, n, false, out);
+            for (int v = 1; v <= n; v += 1) {
+                for (long arc : arcs(G, v)) {
+                    out.writeInt((int) (arc >>> Integer.SIZE));
+                }
+            }
+            for (int v = 1; v <= n; v += 1) {
+                for (long arc : arcs(G, v)) {
+                    out.writeInt((int) arc);
+                }
+            }
+            if (G.isDirected()) {
+                writeOffsets(G, n, true, out);
+                for (int v = 1; v <= n; v += 1) {
+                    for (int u : sorted(G, v)) {
+                        out.writeInt(u);
+                    }
+                }
+            }
+            if (labels != null) {
+                for (int v = 0; v <= n; v += 1) {
+                    Number lab = G.contains(v) ? labels.getLabel(v) : null;
+                    out.writeDouble(lab == null ? Double.NaN
+                                    : lab.doubleValue());
+                }
+                double[] elabels = new double[maxEdge + 1];
+                Arrays.fill(elabels, Double.NaN);
+                for (int[] e : G.edges()) {
+                    Number lab = labels.getLabel(e[0], e[1]);
+                    if (lab != null) {
+                        elabels[G.edgeId(e[0], e[1])] = lab.doubleValue();
+                    }
+                }
+                for (double lab : elabels) {
+                    out.writeDouble(lab);
+                }
+            }
+        }
+    }
+
+    /** Write to OUT the N + 2 offsets of the lists of successors of
+     *  vertices 0 .. N of G (or of predecessors, if INCOMING). */
+    private static void writeOffsets(Graph G, int n, boolean incoming,
+                                     DataOutputStream out)
+        throws IOException {
+        long offset;
+        offset = 0;
+        out.writeLong(offset);
+        for (int v = 1; v <= n + 1; v += 1) {
+            out.writeLong(offset);
+            if (G.contains(v)) {
+                offset += incoming ? G.inDegree(v) : G.outDegree(v);
+            }
+        }
+    }
+
+    /** Returns the successors of vertex V of G, each packed (as by
+     *  EdgeIndex.key) with the id of the connecting edge, in increasing
+     *  order.  Returns an empty array if V is not a vertex. */
+    private static long[] arcs(Graph G, int v) {
+        if (!G.contains(v)) {
+            return new long[0];
+        }
+        long[] result = new long[G.outDegree(v)];
+        int k = 0;
+        for (IntIteration succs = G.intSuccessors(v); succs.hasNext(); ) {
+            int w = succs.nextInt();
+            result[k] = EdgeIndex.key(w, G.edgeId(v, w));
+            k += 1;
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    /** Returns the predecessors of vertex V of G in increasing order, or an
+     *  empty array if V is not a vertex. */
+    private static int[] sorted(Graph G, int v) {
+        if (!G.contains(v)) {
+            return new int[0];
+        }
+        int[] result = new int[G.inDegree(v)];
+        int k = 0;
+        for (IntIteration preds = G.intPredecessors(v); preds.hasNext(); ) {
+            result[k] = preds.nextInt();
+            k += 1;
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    /** First word of every graph file ("GRPH"). */
+    static final int MAGIC = 0x47525048;
+    /** Version of the format written. */
+    static final int VERSION = 1;
+    /** Header flags: the graph is directed. */
+    static final int DIRECTED = 1;
+    /** Header flags: the file contains vertex labels. */
+    static final int VERTEX_LABELS = 2;
+    /** Header flags: the file contains edge labels. */
+    static final int EDGE_LABELS = 4;
+    /** Number of reserved long words at the end of the header. */
+    private static final int HEADER_RESERVED = 2;
+    /** Size of the header in bytes. */
+    static final int HEADER_BYTES = 48 + 8 * HEADER_RESERVED;
+}
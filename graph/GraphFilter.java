@@ -2,7 +2,12 @@ package graph;
 
 /** A Graph that delegates all its operations to another, preexisting
  *  Graph object.  This is intended to be extended, and selected methods
- *  overridden, as needed.
+ *  overridden, as needed.  The int iterations (intVertices, etc.) are
+ *  derived from this object's own vertices, successors, and
+ *  predecessors, so an extension that overrides only the latter is still
+ *  respected by clients using the int iterations.  When those methods
+ *  are not overridden, they deliver the underlying graph's int
+ *  iterations, so nothing is boxed.
  *  @author P. N. Hilfinger */
 public class GraphFilter extends Graph {
 
@@ -31,6 +36,16 @@ public class GraphFilter extends Graph {
         _G.remove(u, v);
     }
 
+    @Override
+    public void removeAll(int[] vertices) {
+        _G.removeAll(vertices);
+    }
+
+    @Override
+    public void removeEdges(int[] pairs) {
+        _G.removeEdges(pairs);
+    }
+
     @Override
     public int vertexSize() {
         return _G.vertexSize();
@@ -73,17 +88,32 @@ public class GraphFilter extends Graph {
 
     @Override
     public Iteration<Integer> vertices() {
-        return _G.vertices();
+        return _G.intVertices();
     }
 
     @Override
     public Iteration<Integer> successors(int v) {
-        return _G.successors(v);
+        return _G.intSuccessors(v);
     }
 
     @Override
     public Iteration<Integer> predecessors(int v) {
-        return _G.predecessors(v);
+        return _G.intPredecessors(v);
+    }
+
+    @Override
+    public IntIteration intVertices() {
+        return IntIteration.of(vertices());
+    }
+
+    @Override
+    public IntIteration intSuccessors(int v) {
+        return IntIteration.of(successors(v));
+    }
+
+    @Override
+    public IntIteration intPredecessors(int v) {
+        return IntIteration.of(predecessors(v));
     }
 
     @Override
@@ -96,6 +126,21 @@ public class GraphFilter extends Graph {
         return _G.edgeId(u, v);
     }
 
+    @Override
+    void load(int n, long[] edges, int count) {
+        _G.load(n, edges, count);
+    }
+
+    @Override
+    int[] compactEdges() {
+        return _G.compactEdges();
+    }
+
+    @Override
+    boolean indexesPredecessors() {
+        return _G.indexesPredecessors();
+    }
+
     @Override
     protected void checkMyVertex(int v) {
         _G.checkMyVertex(v);
@@ -2,44 +2,59 @@ package graph;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.NoSuchElementException;
 
 /* See restrictions in Graph.java. */
 
 /** A partial implementation of Graph containing elements common to
- *  directed and undirected graphs.
+ *  directed and undirected graphs.  Each instance keeps its own storage:
+ *  the outgoing neighbors of every vertex live in growable int arrays
+ *  (see AdjacencyLists), and the endpoints of every edge are recorded in
+ *  a table indexed by edge id.  An undirected edge is entered in the
+ *  lists of both of its ends, but has a single id.  A hash index (see
+ *  EdgeIndex) maps vertex pairs directly to edge ids, so that contains(u, v)
+ *  and edgeId take constant expected time.  Vertex membership is a bit
+ *  set, and a cursor tracks the smallest vertex number not in use.  The
+ *  edge count and per-vertex in-degrees are kept as counters, updated as
+ *  edges come and go.  Optionally, the incoming neighbors of each vertex
+ *  are kept in a second set of adjacency lists.  The ids of removed edges
+ *  are kept on a free list and given to new edges, so the edge table
+ *  grows only with the largest number of edges present at one time;
+ *  compactEdges renumbers the edges densely when that is too many.
  *
  *  @author Eric Huang
  */
 abstract class GraphObj extends Graph {
 
-    /** A new, empty Graph. */
-    GraphObj() {
-        _vertices = new ArrayList<Integer>();
-        _edges = new ArrayList<int[]>();
+    /** A new, empty Graph that keeps lists of incoming edges iff
+     *  INCOMINGLISTS. */
+    GraphObj(boolean incomingLists) {
+        _vertexSet = new BitSet();
+        _freeVertex = 1;
+        _out = new AdjacencyLists();
+        _in = incomingLists ? new AdjacencyLists() : null;
+        _index = new EdgeIndex();
+        _from = new int[INITIAL_EDGES];
+        _to = new int[INITIAL_EDGES];
+        _nextEdge = 1;
+        _freeEdges = new int[INITIAL_EDGES];
+        _inDegrees = new int[INITIAL_EDGES];
     }
 
     @Override
     public int vertexSize() {
-        return _vertices.size();
+        return _vertexSize;
     }
 
     @Override
     public int maxVertex() {
-        return _vertices.get(_vertices.size() - 1);
+        return Math.max(0, _vertexSet.length() - 1);
     }
 
     @Override
     public int edgeSize() {
-        int size = 0;
-        for (int[] element : _edges) {
-            if (element [0] != 0 && element[1] != 0) {
-                size++;
-            }
-        }
-        if (!isDirected()) {
-            return size / 2;
-        }
-        return size;
+        return _edgeSize;
     }
 
     @Override
@@ -47,21 +62,7 @@ abstract class GraphObj extends Graph {
 
     @Override
     public int outDegree(int v) {
-        int edges = 0;
-        if (contains(v)) {
-            for (int[] element : _edges) {
-                if (isDirected() && element[0] == v) {
-                    edges++;
-                } else if (!isDirected()
-                        && (element[0]  == v || element[1] == v)) {
-                    edges++;
-                }
-            }
-        }
-        if (!isDirected()) {
-            return edges / 2;
-        }
-        return edges;
+        return _out.size(v);
     }
 
     @Override
@@ -69,37 +70,21 @@ abstract class GraphObj extends Graph {
 
     @Override
     public boolean contains(int u) {
-        return _vertices.contains(u);
+        return u > 0 && _vertexSet.get(u);
     }
 
     @Override
     public boolean contains(int u, int v) {
-        int[] edge = new int[2];
-        edge[0] = u;
-        edge[1] = v;
-        boolean contains = false;
-        for (int[] element : _edges) {
-            if (Arrays.equals(edge, element)) {
-                contains = true;
-            }
-        }
-        return contains;
+        return edgeId(u, v) != 0;
     }
 
     @Override
     public int add() {
-        boolean added = false;
-        int result = 0;
-        int i = 0;
-        while (!added) {
-            if (_vertices.size() <= i || _vertices.get(i) != i + 1) {
-                _vertices.add(i, i + 1);
-                result = i + 1;
-                added = true;
-            }
-            i++;
-        }
-        return result;
+        int v = _freeVertex;
+        _vertexSet.set(v);
+        _vertexSize += 1;
+        _freeVertex = _vertexSet.nextClearBit(v + 1);
+        return v;
     }
 
     @Override
@@ -107,92 +92,231 @@ abstract class GraphObj extends Graph {
         if (contains(u, v)) {
             throw new IllegalArgumentException("Edge already exists.");
         }
-        if ((contains(u) || contains(v))) {
-            int[] edge = new int[2];
-            edge[0] = u;
-            edge[1] = v;
-            _edges.add(edge);
-            if (!isDirected()) {
-                int[] edge2 = new int[2];
-                edge2[0] = v;
-                edge2[1] = u;
-                _edges.add(edge2);
-            }
-            return edgeId(u, v);
-        } else {
+        if (!contains(u) || !contains(v)) {
             throw new IllegalArgumentException("Vertices do not exist.");
         }
+        return addEdge(u, v);
     }
 
+    @Override
+    void load(int n, long[] edges, int count) {
+        _vertexSet.set(1, n + 1);
+        _vertexSize = n;
+        _freeVertex = n + 1;
+        int size = Math.max(_from.length, _nextEdge + count);
+        _from = Arrays.copyOf(_from, size);
+        _to = Arrays.copyOf(_to, size);
+        _inDegrees = Arrays.copyOf(_inDegrees,
+                                   Math.max(_inDegrees.length, n + 1));
+        for (int k = 0; k < count; k += 1) {
+            addEdge((int) (edges[k] >>> Integer.SIZE), (int) edges[k]);
+        }
+    }
+
+    /** Remove V, if present, and all adjacent edges.  V's own lists are
+     *  dropped whole, so this takes time proportional to the degree of V
+     *  plus the lengths of its neighbors' lists, from which its entries
+     *  are removed, except that removing a vertex with incoming edges
+     *  from a directed graph that keeps no incoming lists requires a
+     *  scan of all edges. */
     @Override
     public void remove(int v) {
-        if (_vertices.contains(v)) {
-            _vertices.remove(Integer.valueOf(v));
-            for (int[] element : _edges) {
-                if (element[0] == v) {
-                    remove(v, element[1]);
+        if (contains(v)) {
+            removeIncident(v);
+            _vertexSet.clear(v);
+            _vertexSize -= 1;
+            _freeVertex = Math.min(_freeVertex, v);
+        }
+    }
+
+    @Override
+    public void remove(int u, int v) {
+        int e = edgeId(u, v);
+        if (e != 0) {
+            removeEdge(e);
+        }
+    }
+
+    /** Remove each of VERTICES that is present, and all adjacent edges.
+     *  If walking the edge lists of each vertex would cost more than a
+     *  scan of the edge table (because the vertices have many edges in
+     *  total, or because incoming lists are not kept), removes the edges
+     *  in a single such scan, compacting each surviving list that held
+     *  any of them once afterwards; otherwise, walks the lists. */
+    @Override
+    public void removeAll(int[] vertices) {
+        BitSet doomed = new BitSet();
+        long incident;
+        incident = 0;
+        boolean scan;
+        scan = false;
+        for (int v : vertices) {
+            if (contains(v) && !doomed.get(v)) {
+                doomed.set(v);
+                incident += _out.size(v) + inCount(v);
+                scan |= _in == null && isDirected() && inCount(v) > 0;
+            }
+        }
+        if (doomed.isEmpty()) {
+            return;
+        }
+        if (scan || incident >= _nextEdge) {
+            BitSet outTouched = new BitSet(), inTouched = new BitSet();
+            for (int e = 1; e < _nextEdge; e += 1) {
+                if (_from[e] != 0
+                    && (doomed.get(_from[e]) || doomed.get(_to[e]))) {
+                    release(e, outTouched, inTouched);
                 }
-                if (element[1] == v) {
-                    remove(element[0], v);
+            }
+            for (int v = doomed.nextSetBit(0); v >= 0;
+                 v = doomed.nextSetBit(v + 1)) {
+                _out.clear(v);
+                if (_in != null) {
+                    _in.clear(v);
                 }
             }
+            outTouched.andNot(doomed);
+            inTouched.andNot(doomed);
+            retain(outTouched, inTouched);
+        } else {
+            for (int v = doomed.nextSetBit(0); v >= 0;
+                 v = doomed.nextSetBit(v + 1)) {
+                removeIncident(v);
+            }
         }
+        _vertexSet.andNot(doomed);
+        _vertexSize -= doomed.cardinality();
+        _freeVertex = Math.min(_freeVertex, doomed.nextSetBit(0));
     }
 
+    /** Remove each edge (PAIRS[2k], PAIRS[2k+1]) that is present.  Each
+     *  edge is first dropped from the index and edge table, and then each
+     *  adjacency list that held any of them is compacted in a single
+     *  pass, so the time taken is proportional to the number of pairs
+     *  plus the total length of the lists touched, however many of the
+     *  edges share an end. */
     @Override
-    public void remove(int u, int v) {
-        int[] edge = new int[2];
-        int[] edge2 = new int[2];
-        edge[0] = u;
-        edge[1] = v;
-        edge2[0] = v;
-        edge2[1] = u;
-        int id = 0;
-        for (int i = 0; i < _edges.size(); i++) {
-            if (Arrays.equals(edge, _edges.get(i))) {
-                _edges.set(i, new int[2]);
-            }
-            if (!isDirected() && Arrays.equals(edge2, _edges.get(i))) {
-                _edges.set(i, new int[2]);
+    public void removeEdges(int[] pairs) {
+        if (pairs.length % 2 != 0) {
+            throw new IllegalArgumentException("odd number of end points");
+        }
+        BitSet outTouched = new BitSet(), inTouched = new BitSet();
+        for (int k = 0; k < pairs.length; k += 2) {
+            int e = edgeId(pairs[k], pairs[k + 1]);
+            if (e != 0) {
+                release(e, outTouched, inTouched);
             }
         }
+        retain(outTouched, inTouched);
     }
 
     @Override
     public Iteration<Integer> vertices() {
-        return Iteration.iteration(_vertices);
+        return intVertices();
     }
 
     @Override
     public Iteration<Integer> successors(int v) {
-        ArrayList<Integer> successors = new ArrayList<Integer>();
-        for (int[] element : _edges) {
-            if (isDirected() && element[0] == v) {
-                successors.add(element[1]);
-            } else if (!isDirected()) {
-                if (element[1] == v && !successors.contains(element[0])) {
-                    successors.add(element[0]);
-                } else if (element[0] == v
-                        && !successors.contains(element[1])) {
-                    successors.add(element[1]);
-                }
-            }
-        }
-        return Iteration.iteration(successors);
+        return intSuccessors(v);
+    }
+
+    @Override
+    public IntIteration intVertices() {
+        return Iteration.setBits(_vertexSet);
+    }
+
+    @Override
+    public IntIteration intSuccessors(int v) {
+        return _out.neighbors(v);
     }
 
     @Override
     public abstract Iteration<Integer> predecessors(int v);
 
+    /** Returns an iteration over my edges in order of edge id.  The
+     *  iteration walks the edge table directly, skipping unused ids, and
+     *  delivers every edge in the same two-element array. */
     @Override
     public Iteration<int[]> edges() {
-        ArrayList<int[]> filterededges = new ArrayList<int[]>();
-        for (int[] element : _edges) {
-            if (element[0] != 0 && element[1] != 0) {
-                filterededges.add(element);
+        return new Iteration<int[]>() {
+            @Override
+            public boolean hasNext() {
+                while (_e < _nextEdge && _from[_e] == 0) {
+                    _e += 1;
+                }
+                return _e < _nextEdge;
+            }
+
+            @Override
+            public int[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                _edge[0] = _from[_e];
+                _edge[1] = _to[_e];
+                _e += 1;
+                return _edge;
+            }
+
+            /** Id of the next candidate edge. */
+            private int _e = 1;
+            /** The array returned by next(). */
+            private final int[] _edge = new int[2];
+        };
+    }
+
+    /** Returns the number of edges whose second end, as given to
+     *  add(u, v), is V.  For a directed graph, this is V's in-degree. */
+    int inCount(int v) {
+        return v > 0 && v < _inDegrees.length ? _inDegrees[v] : 0;
+    }
+
+    /** Returns an iteration over the first ends of the edges whose second
+     *  ends, as given to add(u, v), are V.  Takes time proportional to
+     *  the number of such edges if I keep incoming lists, and otherwise
+     *  to the total number of edges. */
+    IntIteration incoming(int v) {
+        if (_in != null) {
+            return _in.neighbors(v);
+        }
+        ArrayList<Integer> sources = new ArrayList<Integer>();
+        for (int e = 1; e < _nextEdge; e += 1) {
+            if (_to[e] == v) {
+                sources.add(_from[e]);
+            }
+        }
+        return IntIteration.of(sources.iterator());
+    }
+
+    @Override
+    int[] compactEdges() {
+        int[] renumbering = new int[_nextEdge];
+        int n;
+        n = 1;
+        for (int e = 1; e < _nextEdge; e += 1) {
+            if (_from[e] != 0) {
+                renumbering[e] = n;
+                _from[n] = _from[e];
+                _to[n] = _to[e];
+                n += 1;
             }
         }
-        return Iteration.iteration(filterededges);
+        _from = Arrays.copyOf(_from, Math.max(INITIAL_EDGES, n));
+        _to = Arrays.copyOf(_to, Math.max(INITIAL_EDGES, n));
+        _nextEdge = n;
+        _freeEdges = new int[INITIAL_EDGES];
+        _freeEdgeCount = 0;
+        _out.renumber(renumbering);
+        if (_in != null) {
+            _in.renumber(renumbering);
+        }
+        _index.renumber(renumbering);
+        return renumbering;
+    }
+
+    @Override
+    boolean indexesPredecessors() {
+        return _in != null || !isDirected();
     }
 
     @Override
@@ -204,23 +328,179 @@ abstract class GraphObj extends Graph {
 
     @Override
     protected int edgeId(int u, int v) {
-        if (contains(u, v)) {
-            int[] edge = new int[2];
-            edge[0] = u;
-            edge[1] = v;
-            int id = 0;
-            for (int i = 0; i < _edges.size(); i++) {
-                if (Arrays.equals(edge, _edges.get(i))) {
-                    id = i + 1;
+        if (isDirected() || u <= v) {
+            return _index.get(u, v);
+        } else {
+            return _index.get(v, u);
+        }
+    }
+
+    /** Add a new edge (U, V) and return its id, assuming that U and V are
+     *  my vertices and that I have no such edge already. */
+    private int addEdge(int u, int v) {
+        int id;
+        if (_freeEdgeCount > 0) {
+            _freeEdgeCount -= 1;
+            id = _freeEdges[_freeEdgeCount];
+        } else {
+            if (_nextEdge == _from.length) {
+                _from = Arrays.copyOf(_from, 2 * _nextEdge);
+                _to = Arrays.copyOf(_to, 2 * _nextEdge);
+            }
+            id = _nextEdge;
+            _nextEdge += 1;
+        }
+        _from[id] = u;
+        _to[id] = v;
+        _edgeSize += 1;
+        if (v >= _inDegrees.length) {
+            _inDegrees = Arrays.copyOf(_inDegrees,
+                                       Math.max(v + 1, 2 * _inDegrees.length));
+        }
+        _inDegrees[v] += 1;
+        _out.add(u, v, id);
+        if (!isDirected() && u != v) {
+            _out.add(v, u, id);
+        }
+        if (_in != null) {
+            _in.add(v, u, id);
+        }
+        if (isDirected() || u <= v) {
+            _index.put(u, v, id);
+        } else {
+            _index.put(v, u, id);
+        }
+        return id;
+    }
+
+    /** Remove all edges adjacent to vertex V.  V's own lists are emptied
+     *  wholesale, so only the entries at the far ends of its edges are
+     *  removed one by one. */
+    private void removeIncident(int v) {
+        if (_in != null) {
+            for (int k = _in.size(v) - 1; k >= 0; k -= 1) {
+                int w = _in.neighbor(v, k);
+                if (w != v) {
+                    _out.remove(w, v);
+                    release(_in.id(v, k));
+                }
+            }
+        } else if (isDirected() && inCount(v) > 0) {
+            for (int e = 1; e < _nextEdge; e += 1) {
+                if (_to[e] == v && _from[e] != v) {
+                    removeEdge(e);
                 }
             }
-            return id;
         }
-        return 0;
+        for (int k = _out.size(v) - 1; k >= 0; k -= 1) {
+            int w = _out.neighbor(v, k);
+            if (w != v) {
+                if (!isDirected()) {
+                    _out.remove(w, v);
+                } else if (_in != null) {
+                    _in.remove(w, v);
+                }
+            }
+            release(_out.id(v, k));
+        }
+        _out.clear(v);
+        if (_in != null) {
+            _in.clear(v);
+        }
+    }
+
+    /** Remove the edge whose id is E from my adjacency lists and mark
+     *  its entry in the edge table as unused. */
+    private void removeEdge(int e) {
+        int u = _from[e], v = _to[e];
+        _out.remove(u, v);
+        if (!isDirected() && u != v) {
+            _out.remove(v, u);
+        }
+        if (_in != null) {
+            _in.remove(v, u);
+        }
+        release(e);
+    }
+
+    /** Release edge E, as for release(E), and record the vertices whose
+     *  outgoing and incoming lists held it in OUTTOUCHED and INTOUCHED,
+     *  for a later call of retain. */
+    private void release(int e, BitSet outTouched, BitSet inTouched) {
+        int u = _from[e], v = _to[e];
+        outTouched.set(u);
+        if (isDirected()) {
+            inTouched.set(v);
+        } else {
+            outTouched.set(v);
+        }
+        release(e);
+    }
+
+    /** Drop the entries of released edges from the outgoing lists of the
+     *  vertices in OUTTOUCHED and the incoming lists of those in
+     *  INTOUCHED, in one pass over each list. */
+    private void retain(BitSet outTouched, BitSet inTouched) {
+        for (int v = outTouched.nextSetBit(0); v >= 0;
+             v = outTouched.nextSetBit(v + 1)) {
+            _out.retain(v, _from);
+        }
+        if (_in != null) {
+            for (int v = inTouched.nextSetBit(0); v >= 0;
+                 v = inTouched.nextSetBit(v + 1)) {
+                _in.retain(v, _from);
+            }
+        }
     }
 
-    /** My vertices. */
-    private static ArrayList<Integer> _vertices;
-    /** My edges. */
-    private static ArrayList<int[]> _edges;
+    /** Remove the edge whose id is E from the index, the counts, and the
+     *  edge table, leaving its adjacency-list entries to the caller. */
+    private void release(int e) {
+        int u = _from[e], v = _to[e];
+        if (isDirected() || u <= v) {
+            _index.remove(u, v);
+        } else {
+            _index.remove(v, u);
+        }
+        _inDegrees[v] -= 1;
+        _edgeSize -= 1;
+        _from[e] = _to[e] = 0;
+        if (_freeEdgeCount == _freeEdges.length) {
+            _freeEdges = Arrays.copyOf(_freeEdges, 2 * _freeEdgeCount);
+        }
+        _freeEdges[_freeEdgeCount] = e;
+        _freeEdgeCount += 1;
+    }
+
+    /** Number of edge-table slots allocated initially. */
+    private static final int INITIAL_EDGES = 16;
+
+    /** My vertices: bit v is set iff v is one of my vertices. */
+    private final BitSet _vertexSet;
+    /** Number of vertices. */
+    private int _vertexSize;
+    /** The smallest positive vertex number not in _vertexSet. */
+    private int _freeVertex;
+    /** Outgoing neighbors (and all neighbors, if undirected) of each
+     *  vertex, paired with the ids of the connecting edges. */
+    private final AdjacencyLists _out;
+    /** Incoming neighbors of each vertex, or null if not kept. */
+    private final AdjacencyLists _in;
+    /** Maps each edge (u, v) to its id.  Undirected edges are entered
+     *  once, with u <= v. */
+    private final EdgeIndex _index;
+    /** Source of each edge, indexed by edge id; 0 for unused ids. */
+    private int[] _from;
+    /** Destination of each edge, indexed by edge id; 0 for unused ids. */
+    private int[] _to;
+    /** One more than the largest edge id in use or on the free list. */
+    private int _nextEdge;
+    /** Stack of ids of removed edges, available for reuse. */
+    private int[] _freeEdges;
+    /** Number of ids in _freeEdges. */
+    private int _freeEdgeCount;
+    /** Number of edges. */
+    private int _edgeSize;
+    /** Number of edges entering each vertex, indexed by vertex. */
+    private int[] _inDegrees;
 }
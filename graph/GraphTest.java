@@ -1,10 +1,17 @@
 package graph;
 
 import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
 
 /** Unit tests for the Graph class.
  *  @author Eric Huang
@@ -54,7 +61,7 @@ public class GraphTest {
         assertEquals("Edge size should change after removing.",
                 2, g.edgeSize());
         assertEquals(3, g.edgeId(3, 1));
-        assertEquals(4, g.add(2, 1));
+        assertEquals("Removed edge ids should be reused.", 2, g.add(2, 1));
     }
 
     @Test
@@ -184,4 +191,890 @@ public class GraphTest {
         assertEquals(1, i.next());
         assertFalse(i.hasNext());
     }
+
+    @Test
+    public void separateInstances() {
+        DirectedGraph g = new DirectedGraph();
+        for (int i = 1; i <= 5; i++) {
+            g.add();
+        }
+        g.add(1, 2);
+        g.add(2, 3);
+        DirectedGraph h = new DirectedGraph();
+        h.add();
+        h.add();
+        assertEquals(1, h.add(2, 1));
+        assertEquals(5, g.vertexSize());
+        assertEquals(2, g.edgeSize());
+        assertTrue(g.contains(1, 2));
+        assertFalse(h.contains(1, 2));
+        assertEquals(1, h.edgeSize());
+    }
+
+    @Test
+    public void frozenSnapshot() {
+        DirectedGraph g = new DirectedGraph();
+        for (int i = 1; i <= 5; i++) {
+            g.add();
+        }
+        g.add(1, 2);
+        g.add(1, 3);
+        g.add(4, 3);
+        g.add(3, 3);
+        g.remove(2);
+        FrozenGraph f = new FrozenGraph(g);
+        assertEquals(4, f.vertexSize());
+        assertEquals(5, f.maxVertex());
+        assertEquals(3, f.edgeSize());
+        assertFalse(f.contains(2));
+        assertTrue(f.contains(4, 3));
+        assertEquals(g.edgeId(4, 3), f.edgeId(4, 3));
+        assertEquals(3, f.inDegree(3));
+        assertEquals(1, f.outDegree(1));
+        Iteration<Integer> i = f.predecessors(3);
+        assertEquals(1, (int) i.next());
+        assertEquals(3, (int) i.next());
+        assertEquals(4, (int) i.next());
+        assertFalse(i.hasNext());
+        g.add(5, 1);
+        assertFalse("Snapshot should not change.", f.contains(5, 1));
+    }
+
+    @Test
+    public void frozenUndirectedEdges() {
+        UndirectedGraph g = new UndirectedGraph();
+        for (int i = 1; i <= 4; i++) {
+            g.add();
+        }
+        g.add(2, 1);
+        g.add(3, 3);
+        g.add(3, 4);
+        FrozenGraph f = new FrozenGraph(g);
+        assertEquals(3, f.edgeSize());
+        assertEquals(2, f.degree(3));
+        Iteration<int[]> i = f.edges();
+        assertEquals("[1, 2]", Arrays.toString(i.next()));
+        assertEquals("[3, 3]", Arrays.toString(i.next()));
+        assertEquals("[3, 4]", Arrays.toString(i.next()));
+        assertFalse(i.hasNext());
+    }
+
+    @Test
+    public void edgeIndexChurn() {
+        EdgeIndex index = new EdgeIndex();
+        HashMap<Long, Integer> expected = new HashMap<>();
+        Random r = new Random(42);
+        for (int n = 1; n <= 20000; n++) {
+            int u = 1 + r.nextInt(60), v = 1 + r.nextInt(60);
+            if (r.nextInt(3) == 0) {
+                Integer id = expected.remove(EdgeIndex.key(u, v));
+                assertEquals(id == null ? 0 : (int) id, index.remove(u, v));
+            } else {
+                index.put(u, v, n);
+                expected.put(EdgeIndex.key(u, v), n);
+            }
+        }
+        assertEquals(expected.size(), index.size());
+        for (int u = 1; u <= 60; u++) {
+            for (int v = 1; v <= 60; v++) {
+                Integer id = expected.get(EdgeIndex.key(u, v));
+                assertEquals(id == null ? 0 : (int) id, index.get(u, v));
+            }
+        }
+    }
+
+    @Test
+    public void manyVertices() {
+        DirectedGraph g = new DirectedGraph();
+        assertEquals(0, g.maxVertex());
+        for (int i = 1; i <= 200000; i++) {
+            assertEquals(i, g.add());
+        }
+        g.remove(150000);
+        g.remove(70000);
+        assertFalse(g.contains(70000));
+        assertEquals(199998, g.vertexSize());
+        assertEquals(70000, g.add());
+        assertEquals(150000, g.add());
+        assertEquals(200001, g.add());
+        assertEquals(200001, g.maxVertex());
+    }
+
+    @Test
+    public void degreeCounters() {
+        DirectedGraph g = new DirectedGraph();
+        for (int i = 1; i <= 4; i++) {
+            g.add();
+        }
+        g.add(1, 2);
+        g.add(3, 2);
+        g.add(2, 2);
+        g.add(2, 4);
+        assertEquals(3, g.inDegree(2));
+        assertEquals(4, g.edgeSize());
+        g.remove(2);
+        assertEquals(0, g.edgeSize());
+        assertEquals(0, g.inDegree(2));
+        assertEquals(0, g.inDegree(4));
+        assertEquals(0, g.outDegree(1));
+        g.add();
+        assertEquals(0, g.inDegree(2));
+    }
+
+    @Test
+    public void predecessorIndexOptional() {
+        DirectedGraph indexed = new DirectedGraph();
+        DirectedGraph plain = new DirectedGraph(false);
+        for (DirectedGraph g : new DirectedGraph[] { indexed, plain }) {
+            for (int i = 1; i <= 5; i++) {
+                g.add();
+            }
+            g.add(2, 3);
+            g.add(1, 3);
+            g.add(3, 3);
+            g.add(4, 3);
+            g.remove(1, 3);
+            g.remove(4);
+            Iteration<Integer> i = g.predecessors(3);
+            assertEquals(2, (int) i.next());
+            assertEquals(3, (int) i.next());
+            assertFalse(i.hasNext());
+            assertEquals(2, g.inDegree(3));
+        }
+    }
+
+    @Test
+    public void intIterations() {
+        DirectedGraph g = new DirectedGraph();
+        for (int i = 1; i <= 4; i++) {
+            g.add();
+        }
+        g.remove(2);
+        g.add(1, 4);
+        g.add(1, 3);
+        g.add(3, 4);
+        IntIteration verts = g.intVertices();
+        assertEquals(1, verts.nextInt());
+        assertEquals(3, verts.nextInt());
+        assertEquals(4, verts.nextInt());
+        assertFalse(verts.hasNext());
+        IntIteration succs = new LabeledGraph<String, String>(g)
+            .intSuccessors(1);
+        assertEquals(4, succs.nextInt());
+        assertEquals(3, succs.nextInt());
+        assertFalse(succs.hasNext());
+        IntIteration preds = g.intPredecessors(4);
+        assertEquals(1, preds.nextInt());
+        assertEquals(3, preds.nextInt());
+        assertFalse(preds.hasNext());
+    }
+
+    @Test
+    public void builderDirected() {
+        GraphBuilder<String, String> b = new GraphBuilder<>(true);
+        assertEquals(1, b.addVertex("a"));
+        assertEquals(2, b.addVertices(3));
+        b.addEdges(new int[] { 3, 1, 3, 1 }, new int[] { 1, 4, 2, 4 },
+                   new String[] { "x", "y", "z", "w" });
+        b.addEdge(2, 2);
+        LabeledGraph<String, String> g = b.buildLabeled();
+        assertTrue(g.isDirected());
+        assertEquals(4, g.vertexSize());
+        assertEquals(4, g.edgeSize());
+        assertEquals("a", g.getLabel(1));
+        assertEquals("w", g.getLabel(1, 4));
+        assertEquals("x", g.getLabel(3, 1));
+        IntIteration succs = g.intSuccessors(3);
+        assertEquals(1, succs.nextInt());
+        assertEquals(2, succs.nextInt());
+        assertFalse(succs.hasNext());
+        assertEquals(5, g.add());
+    }
+
+    @Test
+    public void builderUndirected() {
+        GraphBuilder<Void, Void> b = new GraphBuilder<>(false);
+        b.addVertices(3);
+        b.addEdges(new int[] { 2, 1, 3 }, new int[] { 1, 2, 3 });
+        Graph g = b.build();
+        assertFalse(g.isDirected());
+        assertEquals(2, g.edgeSize());
+        assertTrue(g.contains(2, 1));
+        assertEquals(1, g.degree(3));
+    }
+
+    @Test
+    public void labeledEdgeChurnAndCompact() {
+        LabeledGraph<String, String> g =
+            new LabeledGraph<>(new DirectedGraph());
+        for (int i = 1; i <= 4; i++) {
+            g.add("V" + i);
+        }
+        for (int n = 0; n < 1000; n++) {
+            g.add(1, 2, "a");
+            g.remove(1, 2);
+        }
+        assertEquals(1, g.add(1, 2, "x"));
+        g.add(2, 3, "y");
+        g.add(3, 4, "z");
+        g.add(4, 1, "w");
+        g.remove(3);
+        assertEquals(3, g.add(2, 4));
+        assertEquals("Label of edge from removed vertex should be gone.",
+                     null, g.getLabel(2, 4));
+        g.remove(1, 2);
+        g.compact();
+        assertEquals(2, g.edgeSize());
+        assertEquals(1, g.edgeId(2, 4));
+        assertEquals(2, g.edgeId(4, 1));
+        assertEquals("w", g.getLabel(4, 1));
+        assertEquals(null, g.getLabel(2, 4));
+        assertEquals(3, g.add(1, 2));
+    }
+
+    @Test
+    public void filterOverridingSuccessors() {
+        DirectedGraph g = new DirectedGraph();
+        for (int i = 1; i <= 4; i++) {
+            g.add();
+        }
+        g.add(1, 2);
+        g.add(1, 3);
+        g.add(3, 4);
+        Graph f = new GraphFilter(g) {
+            @Override
+            public Iteration<Integer> successors(int v) {
+                ArrayList<Integer> succs = new ArrayList<>();
+                for (int w : g.successors(v)) {
+                    if (w != 3) {
+                        succs.add(w);
+                    }
+                }
+                return Iteration.iteration(succs.iterator());
+            }
+        };
+        IntIteration succs = f.intSuccessors(1);
+        assertEquals(2, succs.nextInt());
+        assertFalse(succs.hasNext());
+        BreadthFirstTraversal bfs = new BreadthFirstTraversal(f);
+        bfs.traverse(1);
+        assertTrue(bfs.marked(2));
+        assertFalse(bfs.marked(4));
+        assertTrue(f.intSuccessors(3).hasNext());
+    }
+
+    @Test
+    public void doubleLabeledGraph() {
+        DoubleLabeledGraph g = new DoubleLabeledGraph(new DirectedGraph());
+        for (int i = 1; i <= 100; i++) {
+            g.add((double) i);
+        }
+        for (int i = 1; i < 100; i++) {
+            g.add(i, i + 1, 0.5 * i);
+        }
+        g.add(100, 1);
+        assertEquals(7.0, g.getDouble(7), 0.0);
+        assertEquals(3.5, g.getLabel(7, 8), 0.0);
+        assertTrue(Double.isNaN(g.getDouble(100, 1)));
+        assertEquals(null, g.getLabel(100, 1));
+        g.setDouble(100, 1, 2.0);
+        assertEquals(2.0, g.getLabel(100, 1), 0.0);
+        g.remove(50);
+        g.remove(10, 11);
+        assertEquals(50, g.add(-1.0));
+        assertEquals(-1.0, g.getDouble(50), 0.0);
+        g.add(49, 50);
+        assertEquals("Reused edge id should not keep its old label.",
+                     null, g.getLabel(49, 50));
+        g.compact();
+        assertEquals(98, g.edgeSize());
+        assertEquals(4.5, g.getDouble(9, 10), 0.0);
+        assertEquals(49.5, g.getDouble(99, 100), 0.0);
+        assertEquals(2.0, g.getDouble(100, 1), 0.0);
+        g.setLabel(3, null);
+        assertTrue(Double.isNaN(g.getDouble(3)));
+    }
+
+    @Test
+    public void labelColumns() {
+        LabeledGraph<Long, Integer> g =
+            new LabeledGraph<>(new DirectedGraph(), new LongColumn(),
+                               new IntColumn(-1));
+        int[] verts = new int[50];
+        Long[] vlabels = new Long[50];
+        for (int i = 0; i < 50; i++) {
+            verts[i] = g.add();
+            vlabels[i] = (long) i << 40;
+        }
+        g.setLabels(verts, vlabels);
+        assertEquals(7L << 40, (long) g.getLabel(8));
+        int[] pairs = new int[98];
+        Integer[] elabels = new Integer[49];
+        for (int i = 1; i < 50; i++) {
+            g.add(i, i + 1);
+            pairs[2 * i - 2] = i;
+            pairs[2 * i - 1] = i + 1;
+            elabels[i - 1] = i % 3 == 0 ? null : i;
+        }
+        g.setEdgeLabels(pairs, elabels);
+        assertEquals(4, (int) g.getLabel(4, 5));
+        assertEquals(null, g.getLabel(3, 4));
+        g.remove(10);
+        assertEquals(null, g.getLabel(g.add()));
+        g.add(9, 10);
+        assertEquals(null, g.getLabel(9, 10));
+        g.compact();
+        assertEquals(48, g.edgeSize());
+        assertEquals(49, (int) g.getLabel(49, 50));
+        assertEquals(null, g.getLabel(48, 49));
+
+        IntColumn ints = new IntColumn();
+        ints.setAll(new int[] { 3, 1000 }, new int[] { 5, 6 });
+        assertTrue(ints.capacity() > 1000);
+        assertEquals(6, ints.getInt(1000));
+        assertEquals(null, ints.get(999));
+        assertEquals(Integer.MIN_VALUE, ints.getInt(5000));
+        DoubleColumn doubles = new DoubleColumn();
+        doubles.set(100, null);
+        assertEquals(0, doubles.capacity());
+        doubles.setDouble(9, 1.5);
+        assertEquals(1.5, doubles.get(9), 0.0);
+    }
+
+    @Test
+    public void subgraphViews() {
+        DirectedGraph g = new DirectedGraph();
+        for (int i = 1; i <= 10; i++) {
+            g.add();
+        }
+        for (int i = 1; i < 10; i++) {
+            g.add(i, i + 1);
+            if (i < 9) {
+                g.add(i, i + 2);
+            }
+        }
+        SubgraphView view =
+            new SubgraphView(g, v -> v != 5, (u, v) -> v - u == 1);
+        assertEquals(9, view.vertexSize());
+        assertEquals(10, view.maxVertex());
+        assertEquals(7, view.edgeSize());
+        assertFalse(view.contains(5));
+        assertFalse(view.contains(1, 3));
+        assertTrue(view.contains(6, 7));
+        assertEquals(0, view.inDegree(6));
+        assertEquals(g.edgeId(6, 7), view.edgeId(6, 7));
+        final StringBuilder order = new StringBuilder();
+        new BreadthFirstTraversal(view) {
+            @Override
+            protected boolean visit(int v) {
+                order.append(v);
+                return true;
+            }
+        }.traverse(1);
+        assertEquals("1234", order.toString());
+
+        UndirectedGraph h = new UndirectedGraph();
+        for (int i = 1; i <= 4; i++) {
+            h.add();
+        }
+        h.add(2, 1);
+        h.add(3, 1);
+        h.add(4, 3);
+        SubgraphView odd = new SubgraphView(h, null, (u, v) -> u % 2 == 1)
+            .cacheDegrees();
+        assertEquals(2, odd.degree(1));
+        assertEquals(1, odd.degree(2));
+        assertEquals(1, odd.degree(4));
+        assertEquals(3, odd.edgeSize());
+        h.remove(1, 2);
+        assertEquals(1, odd.degree(2));
+        odd.invalidate();
+        assertEquals(0, odd.degree(2));
+    }
+
+    @Test
+    public void concurrentEdges() throws InterruptedException {
+        final ConcurrentGraph g = new ConcurrentGraph(true, 8);
+        final int n = 200;
+        for (int i = 1; i <= n; i++) {
+            g.add();
+        }
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread[] workers = new Thread[4];
+        for (int t = 0; t < workers.length; t++) {
+            final int first = t;
+            workers[t] = new Thread(() -> {
+                try {
+                    for (int round = 0; round < 3; round++) {
+                        churn(g, first + 1, n, workers.length, round < 2);
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread w : workers) {
+            w.join();
+        }
+        if (failure.get() != null) {
+            throw new AssertionError("worker failed", failure.get());
+        }
+        assertEquals(5 * n, g.edgeSize());
+        assertEquals(5, g.outDegree(7));
+        assertEquals(n, g.inDegree(4));
+        assertTrue(g.contains(7, 4));
+        assertFalse(g.contains(7, 3));
+        g.remove(4);
+        assertEquals(4 * n - 4, g.edgeSize());
+        assertEquals(4, g.add());
+        assertEquals(0, g.inDegree(4));
+    }
+
+    /** Add edges (u, 1) through (u, 10) to G for u = FIRST, FIRST + STEP,
+     *  ... <= N, then remove those with odd ends, and the rest too if
+     *  REMOVEALL. */
+    private static void churn(ConcurrentGraph g, int first, int n, int step,
+                              boolean removeAll) {
+        for (int u = first; u <= n; u += step) {
+            for (int v = 1; v <= 10; v++) {
+                g.add(u, v);
+            }
+            assertTrue(g.outDegree(u) >= 10);
+            for (int v = 1; v <= 10; v += 2) {
+                g.remove(u, v);
+            }
+            if (removeAll) {
+                for (int v = 2; v <= 10; v += 2) {
+                    g.remove(u, v);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void versionedSnapshots() {
+        VersionedGraph g = new VersionedGraph(true);
+        for (int i = 1; i <= 100; i++) {
+            g.add();
+        }
+        for (int i = 1; i < 100; i++) {
+            g.add(i, i + 1);
+        }
+        Graph before = g.snapshot();
+        g.beginBatch();
+        g.remove(50);
+        g.add(1, 100);
+        assertEquals("Batch should see its own changes.", 98, g.edgeSize());
+        assertEquals("Snapshot should not see unpublished changes.",
+                     99, g.snapshot().edgeSize());
+        g.endBatch();
+        Graph after = g.snapshot();
+        assertEquals(99, before.edgeSize());
+        assertEquals(100, before.vertexSize());
+        assertTrue(before.contains(49, 50));
+        assertFalse(before.contains(1, 100));
+        assertEquals(1, before.inDegree(100));
+        assertEquals(98, after.edgeSize());
+        assertFalse(after.contains(50));
+        assertTrue(after.contains(1, 100));
+        assertEquals(2, after.inDegree(100));
+        int count = 0;
+        for (int[] e : after.edges()) {
+            assertTrue(after.contains(e[0], e[1]));
+            count += 1;
+        }
+        assertEquals(98, count);
+        assertEquals(50, g.add());
+        assertFalse(after.contains(50));
+    }
+
+    @Test
+    public void versionedUndirected() {
+        VersionedGraph g = new VersionedGraph(false);
+        g.add();
+        g.add();
+        g.add();
+        g.add(2, 1);
+        g.add(3, 3);
+        Graph s = g.snapshot();
+        g.remove(1, 2);
+        assertTrue(s.contains(1, 2));
+        assertFalse(g.contains(2, 1));
+        assertEquals(1, s.degree(1));
+        assertEquals(1, g.degree(3));
+        assertEquals(1, g.edgeSize());
+    }
+
+    @Test
+    public void versionedManyBlocks() {
+        VersionedGraph g = new VersionedGraph(true);
+        int n = 10000;
+        g.beginBatch();
+        for (int i = 1; i <= n; i++) {
+            g.add();
+        }
+        for (int i = 1; i < n; i++) {
+            g.add(i, i + 1);
+        }
+        g.endBatch();
+        Graph before = g.snapshot();
+        g.add(n, 1);
+        g.remove(5000);
+        Graph after = g.snapshot();
+        assertEquals(n - 1, before.edgeSize());
+        assertFalse(before.contains(n, 1));
+        assertTrue(before.contains(4999, 5000));
+        assertEquals(n - 2, after.edgeSize());
+        assertTrue(after.contains(n, 1));
+        assertFalse(after.contains(5000));
+        assertTrue(after.contains(4095, 4096));
+        assertEquals(1, after.inDegree(1));
+    }
+
+    @Test
+    public void offHeapGraph() {
+        try (OffHeapGraph g = new OffHeapGraph(true)) {
+            for (int i = 1; i <= 5; i++) {
+                g.add();
+            }
+            assertEquals(1, g.add(1, 2));
+            assertEquals(2, g.add(2, 3));
+            assertEquals(3, g.add(3, 3));
+            assertEquals(4, g.add(4, 3));
+            assertEquals(3, g.inDegree(3));
+            int[] preds = new int[3];
+            int k = 0;
+            for (int u : g.predecessors(3)) {
+                preds[k++] = u;
+            }
+            assertArrayEquals(new int[] { 2, 3, 4 }, preds);
+            g.remove(3);
+            assertEquals(1, g.edgeSize());
+            assertEquals(0, g.outDegree(2));
+            assertEquals("Removed edge ids should be reused.", 4, g.add(2, 4));
+            assertEquals(3, g.add());
+            assertEquals(5, g.maxVertex());
+        }
+    }
+
+    @Test
+    public void offHeapLabeledGraph() {
+        try (OffHeapLabeledGraph g =
+             new OffHeapLabeledGraph(new OffHeapGraph(false))) {
+            int n = 10000;
+            for (int i = 1; i <= n; i++) {
+                g.add((double) i);
+            }
+            for (int i = 1; i < n; i++) {
+                g.add(i + 1, i, 0.5 * i);
+            }
+            g.add(7, 7);
+            assertEquals(3, g.degree(7));
+            assertEquals(3.0, g.getDouble(6, 7), 0.0);
+            assertEquals(3.0, g.getLabel(7, 6), 0.0);
+            assertEquals(null, g.getLabel(7, 7));
+            assertEquals(42.0, g.getLabel(42), 0.0);
+            g.remove(8);
+            assertEquals(n - 2, g.edgeSize());
+            assertEquals(8, g.add(-1.0));
+            assertEquals(-1.0, g.getDouble(8), 0.0);
+            g.add(8, 7);
+            assertEquals("Reused edge id should not keep its old label.",
+                         null, g.getLabel(7, 8));
+        }
+    }
+
+    @Test
+    public void graphFileRoundTrip() throws IOException {
+        LabeledGraph<Integer, Double> g =
+            new LabeledGraph<>(new DirectedGraph());
+        for (int i = 1; i <= 6; i++) {
+            g.add(10 * i);
+        }
+        g.add(1, 5, 1.5);
+        g.add(1, 2, 2.5);
+        g.add(5, 5);
+        g.add(6, 1, 0.25);
+        g.remove(3);
+        File file = File.createTempFile("graph", ".bin");
+        file.deleteOnExit();
+        GraphFile.write(g, file);
+        MappedGraph m = GraphFile.load(file);
+        assertTrue(m.isDirected());
+        assertEquals(5, m.vertexSize());
+        assertEquals(6, m.maxVertex());
+        assertEquals(4, m.edgeSize());
+        assertFalse(m.contains(3));
+        assertEquals(g.edgeId(1, 2), m.edgeId(1, 2));
+        assertEquals(g.edgeId(6, 1), m.edgeId(6, 1));
+        assertEquals(0, m.edgeId(2, 1));
+        assertEquals(2, m.inDegree(1) + m.inDegree(2));
+        assertEquals(2.5, m.getDouble(1, 2), 0.0);
+        assertTrue(Double.isNaN(m.getDouble(5, 5)));
+        assertEquals(40.0, m.getDouble(4), 0.0);
+        int count = 0;
+        for (int[] e : m.edges()) {
+            assertTrue(g.contains(e[0], e[1]));
+            count += 1;
+        }
+        assertEquals(4, count);
+    }
+
+    @Test
+    public void graphFileUndirected() throws IOException {
+        Graph g = new UndirectedGraph();
+        for (int i = 1; i <= 4; i++) {
+            g.add();
+        }
+        g.add(3, 1);
+        g.add(2, 2);
+        g.add(4, 1);
+        File file = File.createTempFile("graph", ".bin");
+        file.deleteOnExit();
+        GraphFile.write(g, file);
+        MappedGraph m = GraphFile.load(file);
+        assertFalse(m.isDirected());
+        assertEquals(2, m.degree(1));
+        assertEquals(1, m.degree(2));
+        assertTrue(m.contains(1, 3));
+        assertEquals(g.edgeId(1, 4), m.edgeId(4, 1));
+        int[] succs = new int[2];
+        int k = 0;
+        for (int w : m.successors(1)) {
+            succs[k++] = w;
+        }
+        assertArrayEquals(new int[] { 3, 4 }, succs);
+        assertTrue(Double.isNaN(m.getDouble(1)));
+    }
+
+    @Test
+    public void compressedGraph() {
+        Graph g = new DirectedGraph();
+        int n = 2000;
+        for (int i = 1; i <= n; i++) {
+            g.add();
+        }
+        for (int i = 1; i <= n; i++) {
+            for (int d = 1; d <= 3; d++) {
+                if (i + d <= n) {
+                    g.add(i, i + d);
+                }
+            }
+        }
+        g.add(n, 1);
+        g.remove(7);
+        CompressedGraph c = new CompressedGraph(g);
+        assertEquals(g.vertexSize(), c.vertexSize());
+        assertEquals(g.edgeSize(), c.edgeSize());
+        assertFalse(c.contains(7));
+        assertFalse(c.contains(6, 7));
+        assertEquals(2, c.outDegree(6));
+        assertEquals(2, c.inDegree(9));
+        assertEquals(1, c.edgeId(1, 2));
+        assertEquals(4, c.edgeId(2, 3));
+        assertTrue(c.contains(n, 1));
+        int id = 0;
+        for (int[] e : c.edges()) {
+            id += 1;
+            assertTrue(g.contains(e[0], e[1]));
+            assertEquals(id, c.edgeId(e[0], e[1]));
+        }
+        assertEquals(g.edgeSize(), id);
+        assertTrue("Compressed lists should be a third the size of int "
+                   + "successor and id arrays.",
+                   3 * c.encodedSize() < 2 * 8L * g.edgeSize());
+        BreadthFirstTraversal bfs = new BreadthFirstTraversal(c);
+        bfs.traverse(1);
+        assertTrue(bfs.marked(n));
+    }
+
+    @Test
+    public void compressedUndirected() {
+        Graph g = new UndirectedGraph();
+        for (int i = 1; i <= 5; i++) {
+            g.add();
+        }
+        g.add(5, 1);
+        g.add(3, 3);
+        g.add(2, 1);
+        CompressedGraph c = new CompressedGraph(g);
+        assertEquals(3, c.edgeSize());
+        assertEquals(2, c.degree(1));
+        assertEquals(1, c.degree(3));
+        assertEquals(1, c.edgeId(2, 1));
+        assertEquals(2, c.edgeId(1, 5));
+        assertEquals(3, c.edgeId(3, 3));
+        int count = 0;
+        for (int[] e : c.edges()) {
+            assertTrue(e[0] <= e[1]);
+            count += 1;
+        }
+        assertEquals(3, count);
+    }
+
+    @Test
+    public void bitmapGraph() {
+        Graph g = new BitmapGraph(true);
+        int n = 150;
+        for (int i = 1; i <= n; i++) {
+            g.add();
+        }
+        for (int u = 1; u <= n; u++) {
+            for (int v = 1; v <= n; v += u) {
+                g.add(u, v);
+            }
+        }
+        assertTrue(g.contains(2, 149));
+        assertFalse(g.contains(2, 150));
+        assertEquals(n, g.inDegree(1));
+        assertEquals(75, g.outDegree(2));
+        int prev = 0;
+        for (int w : g.successors(3)) {
+            assertTrue(w > prev);
+            assertEquals(1, w % 3);
+            prev = w;
+        }
+        int e = g.edgeId(5, 6);
+        g.remove(5, 6);
+        assertEquals(e, g.add(5, 7));
+        g.remove(1);
+        assertFalse(g.contains(2, 1));
+        assertEquals(0, g.inDegree(1));
+        assertEquals(1, g.add());
+        int count = 0;
+        for (int[] edge : g.edges()) {
+            assertTrue(g.contains(edge[0], edge[1]));
+            count += 1;
+        }
+        assertEquals(g.edgeSize(), count);
+    }
+
+    @Test
+    public void bitmapUndirected() {
+        Graph g = new BitmapGraph(false);
+        for (int i = 1; i <= 70; i++) {
+            g.add();
+        }
+        g.add(70, 1);
+        g.add(65, 65);
+        g.add(3, 65);
+        assertEquals(g.edgeId(1, 70), g.edgeId(70, 1));
+        assertEquals(2, g.degree(65));
+        assertTrue(g.contains(65, 3));
+        g.remove(65);
+        assertEquals(1, g.edgeSize());
+        assertEquals(0, g.degree(3));
+    }
+
+    @Test
+    public void builderChoosesStorage() {
+        assertTrue(GraphBuilder.newGraph(true, 100, 4000)
+                   instanceof BitmapGraph);
+        assertTrue(GraphBuilder.newGraph(false, 100000, 400000)
+                   instanceof UndirectedGraph);
+        assertTrue(GraphBuilder.newGraph(true, 1000, 1000)
+                   instanceof DirectedGraph);
+        assertTrue(GraphBuilder.newGraph(true, 1000, 9000)
+                   instanceof DirectedGraph);
+        assertTrue(GraphBuilder.newGraph(true, 1000, 12000)
+                   instanceof BitmapGraph);
+    }
+
+    @Test
+    public void removeAllAndEdges() {
+        Graph[] graphs = {
+            new DirectedGraph(), new DirectedGraph(false),
+            new UndirectedGraph()
+        };
+        for (Graph g : graphs) {
+            LabeledGraph<String, String> lg = new LabeledGraph<>(g);
+            int n = 30;
+            for (int i = 1; i <= n; i++) {
+                lg.add("v" + i);
+            }
+            for (int i = 1; i <= n; i++) {
+                lg.add(i, i % n + 1, "e" + i);
+                lg.add(i, i, "s" + i);
+            }
+            assertEquals(2 * n, lg.edgeSize());
+            lg.remove(5);
+            assertEquals(2 * n - 3, lg.edgeSize());
+            lg.removeAll(new int[] { 1, 2, 2, 99, 10 });
+            assertEquals(2 * n - 3 - 8, lg.edgeSize());
+            assertEquals(n - 4, lg.vertexSize());
+            assertFalse(lg.contains(10));
+            assertTrue(lg.contains(9, 9));
+            assertFalse(lg.contains(9, 10));
+            try {
+                lg.removeEdges(new int[] { 20, 21, 22 });
+                assertTrue("Odd pair arrays should be rejected.", false);
+            } catch (IllegalArgumentException excp) {
+                assertEquals("e20", lg.getLabel(20, 21));
+            }
+            lg.removeEdges(new int[] { 20, 21, 22, 22, 7, 1 });
+            assertEquals(2 * n - 13, lg.edgeSize());
+            assertFalse(lg.contains(20, 21));
+            assertEquals(1, lg.add());
+            lg.add(1, 3);
+            assertEquals("Labels of removed edges should be cleared.",
+                         null, lg.getLabel(1, 3));
+            assertEquals(null, lg.getLabel(1));
+        }
+    }
+
+    @Test
+    public void removeHub() {
+        Graph[] graphs = {
+            new DirectedGraph(), new DirectedGraph(false),
+            new UndirectedGraph()
+        };
+        for (Graph g : graphs) {
+            int n = 2000;
+            for (int i = 1; i <= n; i++) {
+                g.add();
+            }
+            for (int i = 2; i <= n; i++) {
+                g.add(1, i);
+                if (i < n) {
+                    g.add(i, i + 1);
+                }
+            }
+            g.add(1, 1);
+            int[] pairs = new int[2 * (n / 2)];
+            for (int k = 0; k < n / 2; k++) {
+                pairs[2 * k] = 1;
+                pairs[2 * k + 1] = 2 * k + 2;
+            }
+            g.removeEdges(pairs);
+            assertEquals(n / 2, g.outDegree(1));
+            assertFalse(g.contains(1, 2));
+            assertTrue(g.contains(1, 3));
+            assertEquals(2 * n - 2 - n / 2, g.edgeSize());
+            g.remove(1);
+            assertEquals(n - 2, g.edgeSize());
+            assertEquals(g.isDirected() ? 1 : 2, g.inDegree(3));
+            assertFalse(g.contains(3, 1));
+            int count = 0;
+            for (int[] e : g.edges()) {
+                assertTrue(g.contains(e[0], e[1]));
+                count += 1;
+            }
+            assertEquals(n - 2, count);
+            assertEquals(1, g.add());
+            assertEquals(0, g.degree(1));
+            int[] evens = new int[n / 2];
+            for (int i = 2; i <= n; i++) {
+                g.add(1, i);
+                if (i % 2 == 0) {
+                    evens[i / 2 - 1] = i;
+                }
+            }
+            g.removeAll(evens);
+            assertEquals(n / 2 - 1, g.edgeSize());
+            assertEquals(n / 2 - 1, g.outDegree(1));
+            assertTrue(g.contains(1, 3));
+            assertFalse(g.contains(3, 4));
+        }
+    }
 }
@@ -0,0 +1,162 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.AbstractQueue;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+
+/** A collection of int values (typically vertex numbers) awaiting
+ *  processing, such as the fringe of a Traversal.  Unlike a
+ *  Queue<Integer>, an IntFringe holds its values unboxed, and adding and
+ *  removing them allocates nothing beyond occasional growth of its
+ *  arrays.  The order in which values come out depends on the subtype:
+ *  IntQueue (first in, first out), IntStack (last in, first out), or
+ *  IntPriorityQueue (smallest first, by a given order).
+ *  @author Eric Huang
+ */
+public abstract class IntFringe {
+
+    /** Add V. */
+    public abstract void add(int v);
+
+    /** Remove and return the next value.  Throws NoSuchElementException
+     *  if I am empty. */
+    public abstract int remove();
+
+    /** Returns the next value, without removing it.  Throws
+     *  NoSuchElementException if I am empty. */
+    public abstract int peek();
+
+    /** Remove one occurrence of V, if there is one.  Returns true iff
+     *  there was. */
+    public abstract boolean remove(int v);
+
+    /** Returns the number of values I hold. */
+    public abstract int size();
+
+    /** Returns true iff I hold no values. */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /** Remove all my values. */
+    public abstract void clear();
+
+    /** Returns a new array of my values, in no particular order. */
+    public abstract int[] toArray();
+
+    /** Returns a view of me as a Queue<Integer>, whose offer, poll, peek,
+     *  and remove(Object) add, remove, and inspect my values (boxing them),
+     *  and whose iterator delivers a snapshot of my values that does not
+     *  support removal. */
+    public Queue<Integer> asQueue() {
+        final IntFringe fringe = this;
+        return new AbstractQueue<Integer>() {
+            @Override
+            public boolean offer(Integer v) {
+                fringe.add(v);
+                return true;
+            }
+
+            @Override
+            public Integer poll() {
+                return fringe.isEmpty() ? null : fringe.remove();
+            }
+
+            @Override
+            public Integer peek() {
+                return fringe.isEmpty() ? null : fringe.peek();
+            }
+
+            @Override
+            public boolean remove(Object v) {
+                return v instanceof Integer && fringe.remove((Integer) v);
+            }
+
+            @Override
+            public int size() {
+                return fringe.size();
+            }
+
+            @Override
+            public boolean isEmpty() {
+                return fringe.isEmpty();
+            }
+
+            @Override
+            public void clear() {
+                fringe.clear();
+            }
+
+            @Override
+            public Iterator<Integer> iterator() {
+                int[] values = fringe.toArray();
+                return IntIteration.range(values, 0, values.length);
+            }
+        };
+    }
+
+    /** Returns an IntFringe that adds to and removes from QUEUE. */
+    static IntFringe of(final Queue<Integer> queue) {
+        return new IntFringe() {
+            @Override
+            public void add(int v) {
+                queue.add(v);
+            }
+
+            @Override
+            public int remove() {
+                return queue.remove();
+            }
+
+            @Override
+            public int peek() {
+                return queue.element();
+            }
+
+            @Override
+            public boolean remove(int v) {
+                return queue.remove(v);
+            }
+
+            @Override
+            public int size() {
+                return queue.size();
+            }
+
+            @Override
+            public boolean isEmpty() {
+                return queue.isEmpty();
+            }
+
+            @Override
+            public void clear() {
+                queue.clear();
+            }
+
+            @Override
+            public int[] toArray() {
+                int[] values = new int[queue.size()];
+                int k;
+                k = 0;
+                for (int v : queue) {
+                    values[k] = v;
+                    k += 1;
+                }
+                return values;
+            }
+
+            @Override
+            public Queue<Integer> asQueue() {
+                return queue;
+            }
+        };
+    }
+
+    /** Throw the exception for removing from an empty fringe. */
+    static void empty() {
+        throw new NoSuchElementException("fringe is empty");
+    }
+}
@@ -0,0 +1,71 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/** An Iteration over int values (typically vertex numbers) that can deliver
+ *  them without boxing.  Loops that care about allocation should call
+ *  nextInt rather than next:
+ *      for (IntIteration succs = G.intSuccessors(v); succs.hasNext(); ) {
+ *          int w = succs.nextInt();
+ *          ...
+ *      }
+ *  An IntIteration may still be used as an Iteration<Integer> (for
+ *  example, in a foreach loop), at the cost of boxing each value.
+ *  @author Eric Huang
+ */
+public abstract class IntIteration extends Iteration<Integer> {
+
+    /** Returns the next value.  Throws NoSuchElementException if there
+     *  is none. */
+    public abstract int nextInt();
+
+    @Override
+    public Integer next() {
+        return nextInt();
+    }
+
+    /** Returns an IntIteration that delivers the values of ITER. */
+    static IntIteration of(final Iterator<Integer> iter) {
+        if (iter instanceof IntIteration) {
+            return (IntIteration) iter;
+        }
+        return new IntIteration() {
+            @Override
+            public boolean hasNext() {
+                return iter.hasNext();
+            }
+
+            @Override
+            public int nextInt() {
+                return iter.next();
+            }
+        };
+    }
+
+    /** Returns an IntIteration over VALUES[START .. END-1]. */
+    static IntIteration range(final int[] values, final int start,
+                              final int end) {
+        return new IntIteration() {
+            @Override
+            public boolean hasNext() {
+                return _k < end;
+            }
+
+            @Override
+            public int nextInt() {
+                if (_k >= end) {
+                    throw new NoSuchElementException();
+                }
+                _k += 1;
+                return values[_k - 1];
+            }
+
+            /** Index of the next value to deliver. */
+            private int _k = start;
+        };
+    }
+
+}
@@ -0,0 +1,183 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+
+/** A priority queue of distinct non-negative ints (typically vertex
+ *  numbers), kept as a binary heap in an int array together with an
+ *  index from each value to its position in the heap.  As an IntFringe,
+ *  it delivers the smallest value according to a given IntComparator.
+ *  Because of the index, contains and remove(v) take constant and
+ *  logarithmic time, and a value whose priority has changed may be
+ *  moved to its proper place with update.  Adding a value already
+ *  present just updates it.
+ *  @author Eric Huang
+ */
+public class IntPriorityQueue extends IntFringe {
+
+    /** An ordering of ints. */
+    @FunctionalInterface
+    public interface IntComparator {
+        /** Returns a negative, zero, or positive value as A is less than,
+         *  equal to, or greater than B. */
+        int compare(int a, int b);
+    }
+
+    /** An empty queue ordered by ORDER. */
+    public IntPriorityQueue(IntComparator order) {
+        _order = order;
+    }
+
+    /** Add V, which must be non-negative, or update it if present. */
+    @Override
+    public void add(int v) {
+        if (v < 0) {
+            throw new IllegalArgumentException("negative value");
+        } else if (contains(v)) {
+            update(v);
+            return;
+        }
+        if (_size == _heap.length) {
+            _heap = Arrays.copyOf(_heap, 2 * _size);
+        }
+        if (v >= _positions.length) {
+            int old = _positions.length;
+            _positions = Arrays.copyOf(_positions, Math.max(v + 1, 2 * old));
+            Arrays.fill(_positions, old, _positions.length, -1);
+        }
+        _size += 1;
+        siftUp(_size - 1, v);
+    }
+
+    /** Remove and return the smallest value. */
+    @Override
+    public int remove() {
+        if (_size == 0) {
+            empty();
+        }
+        int v = _heap[0];
+        removeAt(0);
+        return v;
+    }
+
+    /** Return the smallest value. */
+    @Override
+    public int peek() {
+        if (_size == 0) {
+            empty();
+        }
+        return _heap[0];
+    }
+
+    @Override
+    public boolean remove(int v) {
+        if (!contains(v)) {
+            return false;
+        }
+        removeAt(_positions[v]);
+        return true;
+    }
+
+    /** Returns true iff V is in the queue. */
+    public boolean contains(int v) {
+        return v >= 0 && v < _positions.length && _positions[v] >= 0;
+    }
+
+    /** Restore the order of the queue after the priority of V, which must
+     *  be present, has changed. */
+    public void update(int v) {
+        int k = _positions[v];
+        siftUp(k, v);
+        if (_positions[v] == k) {
+            siftDown(k, v);
+        }
+    }
+
+    @Override
+    public int size() {
+        return _size;
+    }
+
+    @Override
+    public void clear() {
+        for (int k = 0; k < _size; k += 1) {
+            _positions[_heap[k]] = -1;
+        }
+        _size = 0;
+    }
+
+    /** Returns my values in heap order. */
+    @Override
+    public int[] toArray() {
+        return Arrays.copyOf(_heap, _size);
+    }
+
+    /** Remove the value at heap position K. */
+    private void removeAt(int k) {
+        _positions[_heap[k]] = -1;
+        _size -= 1;
+        if (k < _size) {
+            int last = _heap[_size];
+            siftUp(k, last);
+            if (_positions[last] == k) {
+                siftDown(k, last);
+            }
+        }
+    }
+
+    /** Place V, starting at heap position K, as near the root as its
+     *  priority allows. */
+    private void siftUp(int k, int v) {
+        while (k > 0) {
+            int parent = (k - 1) >>> 1;
+            int p = _heap[parent];
+            if (_order.compare(v, p) >= 0) {
+                break;
+            }
+            place(k, p);
+            k = parent;
+        }
+        place(k, v);
+    }
+
+    /** Place V, starting at heap position K, as far from the root as its
+     *  priority requires. */
+    private void siftDown(int k, int v) {
+        while (true) {
+            int child = 2 * k + 1;
+            if (child >= _size) {
+                break;
+            }
+            if (child + 1 < _size
+                && _order.compare(_heap[child + 1], _heap[child]) < 0) {
+                child += 1;
+            }
+            int c = _heap[child];
+            if (_order.compare(c, v) >= 0) {
+                break;
+            }
+            place(k, c);
+            k = child;
+        }
+        place(k, v);
+    }
+
+    /** Put V at heap position K. */
+    private void place(int k, int v) {
+        _heap[k] = v;
+        _positions[v] = k;
+    }
+
+    /** Initial capacity. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** The ordering of values. */
+    private final IntComparator _order;
+    /** The heap: each value is no greater than those at 2k+1 and 2k+2. */
+    private int[] _heap = new int[INITIAL_CAPACITY];
+    /** Number of values in _heap. */
+    private int _size;
+    /** Position in _heap of each value, or -1 if absent. */
+    private int[] _positions = new int[0];
+}
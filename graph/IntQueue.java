@@ -0,0 +1,120 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+/** A double-ended queue of ints in a circular array, which doubles in
+ *  size when full.  As an IntFringe, it delivers values first in, first
+ *  out; addFirst and removeLast give access to the other ends.
+ *  @author Eric Huang
+ */
+public class IntQueue extends IntFringe {
+
+    /** Add V at the end. */
+    @Override
+    public void add(int v) {
+        reserve();
+        _values[(_head + _size) & (_values.length - 1)] = v;
+        _size += 1;
+    }
+
+    /** Add V at the front. */
+    public void addFirst(int v) {
+        reserve();
+        _head = (_head - 1) & (_values.length - 1);
+        _values[_head] = v;
+        _size += 1;
+    }
+
+    /** Remove and return the value at the front. */
+    @Override
+    public int remove() {
+        if (_size == 0) {
+            empty();
+        }
+        int v = _values[_head];
+        _head = (_head + 1) & (_values.length - 1);
+        _size -= 1;
+        return v;
+    }
+
+    /** Return the value at the front. */
+    @Override
+    public int peek() {
+        if (_size == 0) {
+            empty();
+        }
+        return _values[_head];
+    }
+
+    /** Remove and return the value at the end. */
+    public int removeLast() {
+        if (_size == 0) {
+            empty();
+        }
+        _size -= 1;
+        return _values[(_head + _size) & (_values.length - 1)];
+    }
+
+    /** Remove the occurrence of V nearest the front, if any, shifting
+     *  later values forward. */
+    @Override
+    public boolean remove(int v) {
+        int mask = _values.length - 1;
+        for (int k = 0; k < _size; k += 1) {
+            if (_values[(_head + k) & mask] == v) {
+                for (; k + 1 < _size; k += 1) {
+                    _values[(_head + k) & mask] =
+                        _values[(_head + k + 1) & mask];
+                }
+                _size -= 1;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return _size;
+    }
+
+    @Override
+    public void clear() {
+        _head = _size = 0;
+    }
+
+    /** Returns my values, front first. */
+    @Override
+    public int[] toArray() {
+        int[] values = new int[_size];
+        for (int k = 0; k < _size; k += 1) {
+            values[k] = _values[(_head + k) & (_values.length - 1)];
+        }
+        return values;
+    }
+
+    /** Make room for one more value. */
+    private void reserve() {
+        if (_size == _values.length) {
+            int[] values = new int[2 * _values.length];
+            int n = _values.length - _head;
+            System.arraycopy(_values, _head, values, 0, Math.min(n, _size));
+            if (n < _size) {
+                System.arraycopy(_values, 0, values, n, _size - n);
+            }
+            _values = values;
+            _head = 0;
+        }
+    }
+
+    /** Initial capacity (a power of 2). */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** The values, starting at _head and wrapping around.  Its length is
+     *  always a power of 2. */
+    private int[] _values = new int[INITIAL_CAPACITY];
+    /** Position of the front value. */
+    private int _head;
+    /** Number of values. */
+    private int _size;
+}
@@ -0,0 +1,87 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+
+/** A stack of ints in an array, which doubles in size when full.  As an
+ *  IntFringe, it delivers values last in, first out.
+ *  @author Eric Huang
+ */
+public class IntStack extends IntFringe {
+
+    /** Push V. */
+    @Override
+    public void add(int v) {
+        if (_size == _values.length) {
+            _values = Arrays.copyOf(_values, 2 * _size);
+        }
+        _values[_size] = v;
+        _size += 1;
+    }
+
+    /** Pop and return the top value. */
+    @Override
+    public int remove() {
+        if (_size == 0) {
+            empty();
+        }
+        _size -= 1;
+        return _values[_size];
+    }
+
+    /** Return the top value. */
+    @Override
+    public int peek() {
+        if (_size == 0) {
+            empty();
+        }
+        return _values[_size - 1];
+    }
+
+    /** Remove the occurrence of V nearest the top, if any. */
+    @Override
+    public boolean remove(int v) {
+        for (int k = _size - 1; k >= 0; k -= 1) {
+            if (_values[k] == v) {
+                System.arraycopy(_values, k + 1, _values, k, _size - k - 1);
+                _size -= 1;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Reverse the order of the values above the bottom K. */
+    void reverse(int k) {
+        for (int i = k, j = _size - 1; i < j; i += 1, j -= 1) {
+            int t = _values[i];
+            _values[i] = _values[j];
+            _values[j] = t;
+        }
+    }
+
+    @Override
+    public int size() {
+        return _size;
+    }
+
+    @Override
+    public void clear() {
+        _size = 0;
+    }
+
+    /** Returns my values, bottom first. */
+    @Override
+    public int[] toArray() {
+        return Arrays.copyOf(_values, _size);
+    }
+
+    /** Initial capacity. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** The values, bottom first. */
+    private int[] _values = new int[INITIAL_CAPACITY];
+    /** Number of values. */
+    private int _size;
+}
@@ -2,7 +2,9 @@ package graph;
 
 /* See restrictions in Graph.java. */
 
+import java.util.BitSet;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 /** An Iteration<TYPE> is an Iterator<TYPE> that may also be used in a foreach
  *  loop.  That is, it implements the Iterable<TYPE> interface by simply
@@ -56,4 +58,29 @@ public abstract class Iteration<Type>
         return new SimpleIteration<>(iterable.iterator());
     }
 
+    /** Returns an Iteration over the positive indices of the set bits in
+     *  BITS, in increasing order.  BITS must not change during the
+     *  iteration. */
+    static IntIteration setBits(final BitSet bits) {
+        return new IntIteration() {
+            @Override
+            public boolean hasNext() {
+                return _next > 0;
+            }
+
+            @Override
+            public int nextInt() {
+                if (_next <= 0) {
+                    throw new NoSuchElementException();
+                }
+                int v = _next;
+                _next = bits.nextSetBit(v + 1);
+                return v;
+            }
+
+            /** The next index to deliver, or -1 if none. */
+            private int _next = bits.nextSetBit(1);
+        };
+    }
+
 }
@@ -0,0 +1,74 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+/** Storage for labels of type T indexed by small non-negative integers
+ *  (vertex numbers or edge ids), as used by LabeledGraph.  Absent labels
+ *  read as null.  Subtypes keep their labels in arrays that grow
+ *  geometrically (doubling), so that setting labels in order of
+ *  increasing index costs amortized constant time.  IntColumn,
+ *  LongColumn, and DoubleColumn store primitive values unboxed;
+ *  ObjectColumn stores arbitrary references.
+ *  @author Eric Huang
+ */
+public abstract class LabelColumn<T> {
+
+    /** Returns the label at index I, or null if there is none. */
+    public abstract T get(int i);
+
+    /** Set the label at index I to X (null to remove it).  Setting an
+     *  absent label to null does not allocate storage. */
+    public abstract void set(int i, T x);
+
+    /** Remove the label at index I, if any. */
+    public void clear(int i) {
+        set(i, null);
+    }
+
+    /** Set the label at index IDS[k] to VALUES[k], for all k.  The arrays
+     *  must have the same length.  Storage grows at most once. */
+    public void setAll(int[] ids, T[] values) {
+        reserve(checkSizes(ids, values.length) + 1);
+        for (int k = 0; k < ids.length; k += 1) {
+            set(ids[k], values[k]);
+        }
+    }
+
+    /** Returns the number of indices for which storage is currently
+     *  allocated.  Labels at larger indices are all null. */
+    public abstract int capacity();
+
+    /** Make room for labels at indices 0 .. N-1. */
+    abstract void reserve(int n);
+
+    /** Move the label at each index I to index RENUMBERING[I], dropping
+     *  those for which RENUMBERING[I] is 0 and those at indices not less
+     *  than RENUMBERING.length.  No resulting index exceeds SIZE.  (See
+     *  Graph.compactEdges.) */
+    abstract void renumber(int[] renumbering, int size);
+
+    /** Returns the capacity to which an array holding OLD elements should
+     *  grow so as to hold at least N. */
+    static int grow(int old, int n) {
+        return Math.max(n, Math.max(2 * old, INITIAL_CAPACITY));
+    }
+
+    /** Check that IDS has N elements and that none is negative, returning
+     *  the largest (or -1 if IDS is empty). */
+    static int checkSizes(int[] ids, int n) {
+        if (ids.length != n) {
+            throw new IllegalArgumentException("label arrays differ in size");
+        }
+        int max = -1;
+        for (int i : ids) {
+            if (i < 0) {
+                throw new IllegalArgumentException("negative label index");
+            }
+            max = Math.max(max, i);
+        }
+        return max;
+    }
+
+    /** Smallest capacity allocated. */
+    private static final int INITIAL_CAPACITY = 8;
+}
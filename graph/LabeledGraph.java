@@ -2,10 +2,13 @@ package graph;
 
 /* See restrictions in Graph.java. */
 
-import java.util.ArrayList;
+import java.util.BitSet;
 
 /** A Graph whose vertices are labeled with type VL and whose edges are
- *  labeled with type EL.
+ *  labeled with type EL.  Labels are kept in LabelColumns indexed by
+ *  vertex number and edge id; by default these are ObjectColumns, but
+ *  primitive columns (IntColumn, LongColumn, DoubleColumn) may be
+ *  supplied for numeric labels to avoid boxing.
  *  @author P. N. Hilfinger
  */
 public class LabeledGraph<VL, EL> extends GraphFilter {
@@ -15,14 +18,24 @@ public class LabeledGraph<VL, EL> extends GraphFilter {
      *  G have undefined effects upon the labeled version created by this
      *  constructor. */
     public LabeledGraph(Graph G) {
+        this(G, new ObjectColumn<VL>(), new ObjectColumn<EL>());
+    }
+
+    /** A labeling of the graph G, as for LabeledGraph(G), whose vertex
+     *  and edge labels are kept in VLABELS and ELABELS, which should be
+     *  empty and not used otherwise. */
+    public LabeledGraph(Graph G, LabelColumn<VL> vlabels,
+                        LabelColumn<EL> elabels) {
         super(G);
+        _vlabel = vlabels;
+        _elabel = elabels;
     }
 
     /** Returns the label on vertex V, which must be one of my
      *  vertices. */
     public VL getLabel(int v) {
         checkMyVertex(v);
-        return v < _vlabel.size() ? _vlabel.get(v) : null;
+        return _vlabel.get(v);
     }
 
     /** Returns the label on the edge (U, V), which must be one of
@@ -32,7 +45,7 @@ public class LabeledGraph<VL, EL> extends GraphFilter {
         if (e == 0) {
             throw new IllegalArgumentException("no such edge");
         }
-        return e < _elabel.size() ? _elabel.get(e) : null;
+        return _elabel.get(e);
     }
 
     /** Return the successor of vertex U along the edge labeled LAB, if any,
@@ -50,10 +63,7 @@ public class LabeledGraph<VL, EL> extends GraphFilter {
     /** Set getVertexLabel(V) to LAB.  V must be one of my vertices. */
     public void setLabel(int v, VL lab) {
         checkMyVertex(v);
-        if (lab != null || v < _vlabel.size()) {
-            expand(_vlabel, v + 1);
-            _vlabel.set(v, lab);
-        }
+        _vlabel.set(v, lab);
     }
 
     /** Set getEdgeLabel(U, V) to LAB. (U, V) must be one of my edges. */
@@ -62,15 +72,33 @@ public class LabeledGraph<VL, EL> extends GraphFilter {
         if (e == 0) {
             throw new IllegalArgumentException("no such edge");
         }
-        if (lab != null || e < _elabel.size()) {
-            if (!isDirected()) {
-                int c = edgeId(v, u);
-                expand(_elabel, c + 1);
-                _elabel.set(c, lab);
+        _elabel.set(e, lab);
+    }
+
+    /** Set getLabel(VERTICES[k]) to LABELS[k], for all k.  The arrays must
+     *  have the same length, and VERTICES must all be my vertices. */
+    public void setLabels(int[] vertices, VL[] labels) {
+        for (int v : vertices) {
+            checkMyVertex(v);
+        }
+        _vlabel.setAll(vertices, labels);
+    }
+
+    /** Set getLabel(PAIRS[2k], PAIRS[2k + 1]) to LABELS[k], for all k.
+     *  PAIRS must be twice as long as LABELS, and each pair must be one of
+     *  my edges. */
+    public void setEdgeLabels(int[] pairs, EL[] labels) {
+        if (pairs.length != 2 * labels.length) {
+            throw new IllegalArgumentException("label arrays differ in size");
+        }
+        int[] ids = new int[labels.length];
+        for (int k = 0; k < ids.length; k += 1) {
+            ids[k] = edgeId(pairs[2 * k], pairs[2 * k + 1]);
+            if (ids[k] == 0) {
+                throw new IllegalArgumentException("no such edge");
             }
-            expand(_elabel, e + 1);
-            _elabel.set(e, lab);
         }
+        _elabel.setAll(ids, labels);
     }
 
     /** Returns a new vertex labeled LAB, and adds it to me with no
@@ -87,23 +115,18 @@ public class LabeledGraph<VL, EL> extends GraphFilter {
      *  an edge (U, V), sets its label to EL. */
     public int add(int u, int v, EL lab) {
         int e = add(u, v);
-        if (lab != null || e < _elabel.size()) {
-            if (!isDirected()) {
-                int c = edgeId(v, u);
-                expand(_elabel, c + 1);
-                _elabel.set(c, lab);
-            }
-            expand(_elabel, e + 1);
-            _elabel.set(e, lab);
-        }
+        _elabel.set(e, lab);
         return e;
     }
 
     @Override
     public void remove(int v) {
-        super.remove(v);
-        if (v < _vlabel.size()) {
-            _vlabel.set(v, null);
+        if (contains(v)) {
+            BitSet doomed = new BitSet();
+            doomed.set(v);
+            int[] ids = incidentEdges(doomed);
+            super.remove(v);
+            clearLabels(doomed, ids);
         }
     }
 
@@ -112,22 +135,93 @@ public class LabeledGraph<VL, EL> extends GraphFilter {
         int e = edgeId(u, v);
         if (e != 0) {
             super.remove(u, v);
-            if (e < _elabel.size()) {
-                _elabel.set(e, null);
+            _elabel.clear(e);
+        }
+    }
+
+    @Override
+    public void removeAll(int[] vertices) {
+        BitSet doomed = new BitSet();
+        for (int v : vertices) {
+            if (contains(v)) {
+                doomed.set(v);
             }
         }
+        int[] ids = incidentEdges(doomed);
+        super.removeAll(vertices);
+        clearLabels(doomed, ids);
     }
 
-    /** If necessary, add nulls to L to make its length N.  Has no effect if
-     *  L's length is already at least N. */
-    static void expand(ArrayList<?> L, int n) {
-        while (L.size() < n) {
-            L.add(null);
+    @Override
+    public void removeEdges(int[] pairs) {
+        if (pairs.length % 2 != 0) {
+            throw new IllegalArgumentException("odd number of end points");
+        }
+        int[] ids = new int[pairs.length / 2];
+        for (int k = 0; k < ids.length; k += 1) {
+            ids[k] = edgeId(pairs[2 * k], pairs[2 * k + 1]);
+        }
+        super.removeEdges(pairs);
+        clearLabels(new BitSet(), ids);
+    }
+
+    /** Renumber my edges densely (see Graph.compactEdges) and move their
+     *  labels to match, releasing the label slots of removed edges.  Edge
+     *  ids returned by earlier calls to add(u, v) are no longer valid
+     *  afterwards. */
+    public void compact() {
+        int[] renumbering = compactEdges();
+        if (renumbering != null) {
+            _elabel.renumber(renumbering, edgeSize());
+        }
+    }
+
+    /** Returns the ids of the edges incident on the vertices in DOOMED,
+     *  perhaps with repetitions.  Unless predecessors are indexed, finds
+     *  them in a single pass over all edges rather than asking for the
+     *  predecessors of each vertex. */
+    private int[] incidentEdges(BitSet doomed) {
+        IntStack ids = new IntStack();
+        if (doomed.isEmpty()) {
+            return ids.toArray();
+        } else if (indexesPredecessors()) {
+            for (int v = doomed.nextSetBit(0); v >= 0;
+                 v = doomed.nextSetBit(v + 1)) {
+                for (IntIteration succs = intSuccessors(v);
+                     succs.hasNext(); ) {
+                    ids.add(edgeId(v, succs.nextInt()));
+                }
+                for (IntIteration preds = intPredecessors(v);
+                     preds.hasNext(); ) {
+                    ids.add(edgeId(preds.nextInt(), v));
+                }
+            }
+        } else {
+            for (int[] edge : edges()) {
+                if (doomed.get(edge[0]) || doomed.get(edge[1])) {
+                    ids.add(edgeId(edge[0], edge[1]));
+                }
+            }
+        }
+        return ids.toArray();
+    }
+
+    /** Set the labels of the vertices in DOOMED and of the edges whose
+     *  ids are the non-zero elements of IDS to null. */
+    private void clearLabels(BitSet doomed, int[] ids) {
+        for (int e : ids) {
+            if (e != 0) {
+                _elabel.clear(e);
+            }
+        }
+        for (int v = doomed.nextSetBit(0); v >= 0;
+             v = doomed.nextSetBit(v + 1)) {
+            _vlabel.clear(v);
         }
     }
 
     /** Mapping of vertex numbers to vertex labels. */
-    private final ArrayList<VL> _vlabel = new ArrayList<>();
+    private final LabelColumn<VL> _vlabel;
     /** Mapping of unique edge ids to edge labels. */
-    private final ArrayList<EL> _elabel = new ArrayList<>();
+    private final LabelColumn<EL> _elabel;
 }
@@ -0,0 +1,99 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+
+/** A LabelColumn of Longs, kept unboxed in a long array.  One long value,
+ *  given when the column is created, stands for a missing (null) label
+ *  and so cannot itself be stored.
+ *  @author Eric Huang
+ */
+public class LongColumn extends LabelColumn<Long> {
+
+    /** A column in which Long.MIN_VALUE stands for null. */
+    public LongColumn() {
+        this(Long.MIN_VALUE);
+    }
+
+    /** A column in which NONE stands for null. */
+    public LongColumn(long none) {
+        _none = none;
+    }
+
+    /** Returns the label at index I, or the null value if none. */
+    public long getLong(int i) {
+        return i < _values.length ? _values[i] : _none;
+    }
+
+    /** Set the label at index I to X. */
+    public void setLong(int i, long x) {
+        if (i >= _values.length) {
+            if (x == _none) {
+                return;
+            }
+            reserve(i + 1);
+        }
+        _values[i] = x;
+    }
+
+    /** Set the label at index IDS[k] to VALUES[k], for all k.  The arrays
+     *  must have the same length. */
+    public void setAll(int[] ids, long[] values) {
+        reserve(checkSizes(ids, values.length) + 1);
+        for (int k = 0; k < ids.length; k += 1) {
+            _values[ids[k]] = values[k];
+        }
+    }
+
+    /** Returns the value that stands for null. */
+    public long none() {
+        return _none;
+    }
+
+    @Override
+    public Long get(int i) {
+        long x = getLong(i);
+        return x == _none ? null : x;
+    }
+
+    @Override
+    public void set(int i, Long x) {
+        setLong(i, x == null ? _none : x);
+    }
+
+    @Override
+    public int capacity() {
+        return _values.length;
+    }
+
+    @Override
+    void reserve(int n) {
+        if (n > _values.length) {
+            int old = _values.length;
+            _values = Arrays.copyOf(_values, grow(old, n));
+            Arrays.fill(_values, old, _values.length, _none);
+        }
+    }
+
+    @Override
+    void renumber(int[] renumbering, int size) {
+        long[] values = new long[size + 1];
+        Arrays.fill(values, _none);
+        int n = Math.min(renumbering.length, _values.length);
+        for (int i = 0; i < n; i += 1) {
+            if (renumbering[i] != 0) {
+                values[renumbering[i]] = _values[i];
+            }
+        }
+        _values = values;
+    }
+
+    /** The value standing for null. */
+    private final long _none;
+    /** Labels, indexed by vertex number or edge id. */
+    private long[] _values = EMPTY;
+
+    /** An empty array of labels. */
+    private static final long[] EMPTY = new long[0];
+}
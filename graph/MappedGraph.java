@@ -0,0 +1,346 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.NoSuchElementException;
+
+/** A read-only graph backed by a memory-mapped graph file (see
+ *  GraphFile).  Creating one maps the file's arrays without reading them,
+ *  so it takes nearly constant time; pages are brought in by the
+ *  operating system as they are touched.  Since each vertex's successors
+ *  are sorted, finding an edge id takes time logarithmic in the degree.
+ *  Vertex and edge labels, if the file has them, are available as doubles
+ *  through getDouble.  All modifying operations throw
+ *  UnsupportedOperationException.
+ *  @author Eric Huang
+ */
+public class MappedGraph extends Graph {
+
+    /** The graph in the file open on CHANNEL, which need not remain open
+     *  afterwards. */
+    MappedGraph(FileChannel channel) throws IOException {
+        if (channel.size() < GraphFile.HEADER_BYTES) {
+            throw new IOException("not a graph file");
+        }
+        ByteBuffer header =
+            channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                        GraphFile.HEADER_BYTES);
+        if (header.getInt() != GraphFile.MAGIC) {
+            throw new IOException("not a graph file");
+        }
+        if (header.getInt() != GraphFile.VERSION) {
+            throw new IOException("unsupported graph file version");
+        }
+        int flags = header.getInt();
+        _directed = (flags & GraphFile.DIRECTED) != 0;
+        _maxVertex = header.getInt();
+        _vertexSize = (int) header.getLong();
+        _edgeSize = (int) header.getLong();
+        long arcs = header.getLong();
+        int maxEdge = (int) header.getLong();
+
+        long pos = GraphFile.HEADER_BYTES;
+        long words = (_maxVertex >>> 6) + 1;
+        _present = OffHeapArray.map(channel, pos, words, Long.BYTES);
+        pos += words * Long.BYTES;
+        _outOffsets = OffHeapArray.map(channel, pos, _maxVertex + 2,
+                                       Long.BYTES);
+        pos += (_maxVertex + 2L) * Long.BYTES;
+        _outTargets = OffHeapArray.map(channel, pos, arcs, Integer.BYTES);
+        pos += arcs * Integer.BYTES;
+        _outIds = OffHeapArray.map(channel, pos, arcs, Integer.BYTES);
+        pos += arcs * Integer.BYTES;
+        if (_directed) {
+            _inOffsets = OffHeapArray.map(channel, pos, _maxVertex + 2,
+                                          Long.BYTES);
+            pos += (_maxVertex + 2L) * Long.BYTES;
+            _inSources = OffHeapArray.map(channel, pos, _edgeSize,
+                                          Integer.BYTES);
+            pos += (long) _edgeSize * Integer.BYTES;
+        } else {
+            _inOffsets = _outOffsets;
+            _inSources = _outTargets;
+        }
+        if ((flags & GraphFile.VERTEX_LABELS) != 0) {
+            _vlabels = OffHeapArray.map(channel, pos, _maxVertex + 1,
+                                        Double.BYTES);
+            pos += (_maxVertex + 1L) * Double.BYTES;
+        } else {
+            _vlabels = null;
+        }
+        if ((flags & GraphFile.EDGE_LABELS) != 0) {
+            _elabels = OffHeapArray.map(channel, pos, maxEdge + 1,
+                                        Double.BYTES);
+            pos += (maxEdge + 1L) * Double.BYTES;
+        } else {
+            _elabels = null;
+        }
+        _maxEdge = maxEdge;
+        if (pos > channel.size()) {
+            throw new IOException("graph file is truncated");
+        }
+    }
+
+    /** Returns the label of vertex V, which must be one of my vertices,
+     *  or NaN if it has none. */
+    public double getDouble(int v) {
+        checkMyVertex(v);
+        return _vlabels == null ? Double.NaN : _vlabels.getDouble(v);
+    }
+
+    /** Returns the label of edge (U, V), which must be one of my edges, or
+     *  NaN if it has none. */
+    public double getDouble(int u, int v) {
+        int e = edgeId(u, v);
+        if (e == 0) {
+            throw new IllegalArgumentException("no such edge");
+        }
+        return _elabels == null || e > _maxEdge ? Double.NaN
+            : _elabels.getDouble(e);
+    }
+
+    @Override
+    public int vertexSize() {
+        return _vertexSize;
+    }
+
+    @Override
+    public int maxVertex() {
+        return _maxVertex;
+    }
+
+    @Override
+    public int edgeSize() {
+        return _edgeSize;
+    }
+
+    @Override
+    public boolean isDirected() {
+        return _directed;
+    }
+
+    @Override
+    public int outDegree(int v) {
+        if (!contains(v)) {
+            return 0;
+        }
+        return (int) (_outOffsets.getLong(v + 1) - _outOffsets.getLong(v));
+    }
+
+    @Override
+    public int inDegree(int v) {
+        if (!contains(v)) {
+            return 0;
+        }
+        return (int) (_inOffsets.getLong(v + 1) - _inOffsets.getLong(v));
+    }
+
+    @Override
+    public boolean contains(int u) {
+        return u > 0 && u <= _maxVertex
+            && (_present.getLong(u >>> 6) & (1L << u)) != 0;
+    }
+
+    @Override
+    public boolean contains(int u, int v) {
+        return edgeId(u, v) != 0;
+    }
+
+    @Override
+    public int add() {
+        throw new UnsupportedOperationException("graph is read-only");
+    }
+
+    @Override
+    public int add(int u, int v) {
+        throw new UnsupportedOperationException("graph is read-only");
+    }
+
+    @Override
+    public void remove(int v) {
+        throw new UnsupportedOperationException("graph is read-only");
+    }
+
+    @Override
+    public void remove(int u, int v) {
+        throw new UnsupportedOperationException("graph is read-only");
+    }
+
+    @Override
+    public Iteration<Integer> vertices() {
+        return intVertices();
+    }
+
+    @Override
+    public Iteration<Integer> successors(int v) {
+        return intSuccessors(v);
+    }
+
+    @Override
+    public Iteration<Integer> predecessors(int v) {
+        return intPredecessors(v);
+    }
+
+    @Override
+    public IntIteration intVertices() {
+        return new IntIteration() {
+            @Override
+            public boolean hasNext() {
+                while (_v <= _maxVertex && !contains(_v)) {
+                    _v += 1;
+                }
+                return _v <= _maxVertex;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                _v += 1;
+                return _v - 1;
+            }
+
+            /** Next candidate vertex. */
+            private int _v = 1;
+        };
+    }
+
+    @Override
+    public IntIteration intSuccessors(int v) {
+        return range(_outOffsets, _outTargets, v);
+    }
+
+    @Override
+    public IntIteration intPredecessors(int v) {
+        return range(_inOffsets, _inSources, v);
+    }
+
+    /** Returns an iteration over my edges, delivering every edge in the
+     *  same two-element array.  Each undirected edge appears once, with
+     *  its smaller end first. */
+    @Override
+    public Iteration<int[]> edges() {
+        return new Iteration<int[]>() {
+            @Override
+            public boolean hasNext() {
+                while (true) {
+                    if (_k < _end) {
+                        if (_directed || _u <= _outTargets.getInt(_k)) {
+                            return true;
+                        }
+                        _k += 1;
+                    } else if (_u < _maxVertex) {
+                        _u += 1;
+                        _end = _outOffsets.getLong(_u + 1);
+                    } else {
+                        return false;
+                    }
+                }
+            }
+
+            @Override
+            public int[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                _edge[0] = _u;
+                _edge[1] = _outTargets.getInt(_k);
+                _k += 1;
+                return _edge;
+            }
+
+            /** Current first end. */
+            private int _u = 0;
+            /** Index of the next adjacency entry. */
+            private long _k = 0;
+            /** End of _u's adjacency entries. */
+            private long _end = 0;
+            /** The array returned by next(). */
+            private final int[] _edge = new int[2];
+        };
+    }
+
+    @Override
+    protected void checkMyVertex(int v) {
+        if (!contains(v)) {
+            throw new IllegalArgumentException("vertex not from Graph");
+        }
+    }
+
+    @Override
+    protected int edgeId(int u, int v) {
+        if (!contains(u)) {
+            return 0;
+        }
+        long lo = _outOffsets.getLong(u), hi = _outOffsets.getLong(u + 1);
+        while (lo < hi) {
+            long mid = (lo + hi) >>> 1;
+            int w = _outTargets.getInt(mid);
+            if (w == v) {
+                return _outIds.getInt(mid);
+            } else if (w < v) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return 0;
+    }
+
+    /** Returns an iteration over the entries of VALUES for vertex V,
+     *  whose bounds are given by OFFSETS. */
+    private IntIteration range(final OffHeapArray offsets,
+                               final OffHeapArray values, int v) {
+        final long start = contains(v) ? offsets.getLong(v) : 0;
+        final long end = contains(v) ? offsets.getLong(v + 1) : 0;
+        return new IntIteration() {
+            @Override
+            public boolean hasNext() {
+                return _k < end;
+            }
+
+            @Override
+            public int nextInt() {
+                if (_k >= end) {
+                    throw new NoSuchElementException();
+                }
+                _k += 1;
+                return values.getInt(_k - 1);
+            }
+
+            /** Index of the next value to deliver. */
+            private long _k = start;
+        };
+    }
+
+    /** True iff I am directed. */
+    private final boolean _directed;
+    /** Largest vertex number. */
+    private final int _maxVertex;
+    /** Number of vertices. */
+    private final int _vertexSize;
+    /** Number of edges. */
+    private final int _edgeSize;
+    /** Largest edge id. */
+    private final int _maxEdge;
+    /** Bit map of the vertices present, as longs. */
+    private final OffHeapArray _present;
+    /** Start of each vertex's successors in _outTargets (longs). */
+    private final OffHeapArray _outOffsets;
+    /** Successors of all vertices. */
+    private final OffHeapArray _outTargets;
+    /** Edge ids parallel to _outTargets. */
+    private final OffHeapArray _outIds;
+    /** Start of each vertex's predecessors in _inSources (longs). */
+    private final OffHeapArray _inOffsets;
+    /** Predecessors of all vertices. */
+    private final OffHeapArray _inSources;
+    /** Vertex labels (doubles), or null if none. */
+    private final OffHeapArray _vlabels;
+    /** Edge labels by edge id (doubles), or null if none. */
+    private final OffHeapArray _elabels;
+}
@@ -0,0 +1,162 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/** Breadth-first searches from many sources at once over the same graph,
+ *  in the manner of MS-BFS.  Sources are taken in batches of up to 64,
+ *  one per bit of a long.  Each vertex has three words: the sources that
+ *  have reached it, those that reached it at the current level, and those
+ *  reaching it at the next.  A level is one pass over the successors of
+ *  the vertices active at that level, OR-ing each vertex's word into its
+ *  successors', so a batch shares its adjacency scans among all its
+ *  searches.  Only active vertices are examined at each level.  Searches
+ *  may follow edges forwards (successors) or backwards (predecessors);
+ *  the latter answers questions such as "what depends on any of these
+ *  targets?" in a dependency graph.
+ *  @author Eric Huang
+ */
+public class MultiSourceBreadthFirstSearch {
+
+    /** Receives the results of a search. */
+    @FunctionalInterface
+    public interface Visitor {
+        /** Record that vertex V is at distance DEPTH from the sources
+         *  SOURCES[FIRST + i] for each 1 bit i of MASK, and that those
+         *  sources had not reached V at any smaller depth. */
+        void visit(int v, int depth, int first, long mask);
+    }
+
+    /** Searches of G that follow edges forwards. */
+    public MultiSourceBreadthFirstSearch(Graph G) {
+        this(G, false);
+    }
+
+    /** Searches of G that follow edges backwards (from each vertex to its
+     *  predecessors) iff REVERSE. */
+    public MultiSourceBreadthFirstSearch(Graph G, boolean reverse) {
+        _G = G;
+        _reverse = reverse;
+    }
+
+    /** Search from each of SOURCES, reporting each vertex reached, with
+     *  its depth, to VISITOR.  Each source is reported at depth 0. */
+    public void search(int[] sources, Visitor visitor) {
+        for (int v : sources) {
+            _G.checkMyVertex(v);
+        }
+        int n = _G.maxVertex() + 1;
+        long[] seen = new long[n];
+        long[] visit = new long[n];
+        long[] next = new long[n];
+        int[] active = new int[INITIAL_ACTIVE];
+        int[] found = new int[INITIAL_ACTIVE];
+        for (int first = 0; first < sources.length; first += BATCH) {
+            int last = Math.min(sources.length, first + BATCH);
+            int size = 0;
+            for (int k = first; k < last; k += 1) {
+                int v = sources[k];
+                if (visit[v] == 0) {
+                    active = append(active, size, v);
+                    size += 1;
+                }
+                visit[v] |= 1L << (k - first);
+            }
+            for (int k = 0; k < size; k += 1) {
+                int v = active[k];
+                seen[v] = visit[v];
+                visitor.visit(v, 0, first, visit[v]);
+            }
+            for (int depth = 1; size > 0; depth += 1) {
+                int count = 0;
+                for (int k = 0; k < size; k += 1) {
+                    int u = active[k];
+                    long mask = visit[u];
+                    visit[u] = 0;
+                    for (IntIteration nbrs = neighbors(u); nbrs.hasNext(); ) {
+                        int v = nbrs.nextInt();
+                        long newer = mask & ~seen[v];
+                        if (newer != 0) {
+                            if (next[v] == 0) {
+                                found = append(found, count, v);
+                                count += 1;
+                            }
+                            next[v] |= newer;
+                        }
+                    }
+                }
+                for (int k = 0; k < count; k += 1) {
+                    int v = found[k];
+                    long mask = next[v];
+                    next[v] = 0;
+                    seen[v] |= mask;
+                    visit[v] = mask;
+                    visitor.visit(v, depth, first, mask);
+                }
+                int[] t = active;
+                active = found;
+                found = t;
+                size = count;
+            }
+            Arrays.fill(seen, 0);
+        }
+    }
+
+    /** Returns the depths of all vertices from each of SOURCES: element
+     *  [k][v] is the distance of vertex V from SOURCES[k], or -1 if it is
+     *  not reachable. */
+    public int[][] depths(int... sources) {
+        int n = _G.maxVertex() + 1;
+        int[][] result = new int[sources.length][n];
+        for (int[] row : result) {
+            Arrays.fill(row, -1);
+        }
+        search(sources, (v, depth, first, mask) -> {
+            for (long bits = mask; bits != 0; bits &= bits - 1) {
+                result[first + Long.numberOfTrailingZeros(bits)][v] = depth;
+            }
+        });
+        return result;
+    }
+
+    /** Returns the sets of vertices reachable from each of SOURCES
+     *  (including itself). */
+    public BitSet[] reachable(int... sources) {
+        BitSet[] result = new BitSet[sources.length];
+        for (int k = 0; k < result.length; k += 1) {
+            result[k] = new BitSet();
+        }
+        search(sources, (v, depth, first, mask) -> {
+            for (long bits = mask; bits != 0; bits &= bits - 1) {
+                result[first + Long.numberOfTrailingZeros(bits)].set(v);
+            }
+        });
+        return result;
+    }
+
+    /** Returns the vertices adjacent to U in the direction searched. */
+    private IntIteration neighbors(int u) {
+        return _reverse ? _G.intPredecessors(u) : _G.intSuccessors(u);
+    }
+
+    /** Returns A, or a larger copy of it, after storing V at A[K]. */
+    private static int[] append(int[] a, int k, int v) {
+        if (k == a.length) {
+            a = Arrays.copyOf(a, 2 * k);
+        }
+        a[k] = v;
+        return a;
+    }
+
+    /** Number of searches per batch (bits in a long). */
+    private static final int BATCH = Long.SIZE;
+    /** Initial size of the lists of active vertices. */
+    private static final int INITIAL_ACTIVE = 64;
+
+    /** The graph searched. */
+    private final Graph _G;
+    /** True iff searches follow edges backwards. */
+    private final boolean _reverse;
+}
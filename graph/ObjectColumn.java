@@ -0,0 +1,59 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+
+/** A LabelColumn of arbitrary references, kept in an array.  This is the
+ *  default label storage of a LabeledGraph.
+ *  @author Eric Huang
+ */
+public class ObjectColumn<T> extends LabelColumn<T> {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int i) {
+        return i < _values.length ? (T) _values[i] : null;
+    }
+
+    @Override
+    public void set(int i, T x) {
+        if (i >= _values.length) {
+            if (x == null) {
+                return;
+            }
+            reserve(i + 1);
+        }
+        _values[i] = x;
+    }
+
+    @Override
+    public int capacity() {
+        return _values.length;
+    }
+
+    @Override
+    void reserve(int n) {
+        if (n > _values.length) {
+            _values = Arrays.copyOf(_values, grow(_values.length, n));
+        }
+    }
+
+    @Override
+    void renumber(int[] renumbering, int size) {
+        Object[] values = new Object[size + 1];
+        int n = Math.min(renumbering.length, _values.length);
+        for (int i = 0; i < n; i += 1) {
+            if (renumbering[i] != 0) {
+                values[renumbering[i]] = _values[i];
+            }
+        }
+        _values = values;
+    }
+
+    /** Labels, indexed by vertex number or edge id. */
+    private Object[] _values = EMPTY;
+
+    /** An empty array of labels. */
+    private static final Object[] EMPTY = new Object[0];
+}
@@ -0,0 +1,144 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/** A growable array of ints, longs, or doubles stored outside the Java
+ *  heap, in fixed-size direct ByteBuffer segments.  Because the array is
+ *  segmented, it may hold more than 2^31 bytes, and growing it never
+ *  copies existing elements.  Newly allocated elements are zero.  After
+ *  close(), the array holds no storage and must not be used.  An array
+ *  may instead be a read-only view of part of a file (see map), which
+ *  may not be grown or modified.
+ *
+ *  Java offers no supported way to free a direct buffer (or unmap a
+ *  mapped one) explicitly, so close() merely drops the array's
+ *  references to its segments: their memory is returned only when the
+ *  garbage collector finds the buffer objects unreachable.  Since those
+ *  objects are small, a heap under little pressure may keep them, and
+ *  their memory, indefinitely.  All direct buffers together are limited
+ *  by -XX:MaxDirectMemorySize (by default, the maximum heap size); an
+ *  allocation beyond it first triggers a full collection and then, if
+ *  that frees too little, throws OutOfMemoryError.  Programs that create
+ *  and close many large arrays should size that limit accordingly.
+ *  Mapped segments do not count against the limit, but the file stays
+ *  mapped until they are collected.
+ *  @author Eric Huang
+ */
+final class OffHeapArray {
+
+    /** An empty array of elements WIDTH bytes long (4 for ints, 8 for
+     *  longs or doubles). */
+    OffHeapArray(int width) {
+        this(width, new ByteBuffer[0], SEGMENT_SHIFT);
+    }
+
+    /** An array of elements WIDTH bytes long stored in SEGMENTS, each of
+     *  which (except perhaps the last) holds 2^SHIFT bytes. */
+    private OffHeapArray(int width, ByteBuffer[] segments, int shift) {
+        _width = width;
+        _segments = segments;
+        _shift = shift;
+    }
+
+    /** Returns a read-only array of COUNT elements WIDTH bytes long, whose
+     *  contents are those of CHANNEL starting at byte POSITION, in
+     *  big-endian order.  The file is mapped into memory, so its pages are
+     *  read only when touched. */
+    static OffHeapArray map(FileChannel channel, long position, long count,
+                            int width) throws IOException {
+        long bytes = count * width;
+        int n = (int) ((bytes + MAPPED_BYTES - 1) >>> MAPPED_SHIFT);
+        ByteBuffer[] segments = new ByteBuffer[n];
+        for (int s = 0; s < n; s += 1) {
+            long start = (long) s << MAPPED_SHIFT;
+            segments[s] =
+                channel.map(FileChannel.MapMode.READ_ONLY, position + start,
+                            Math.min(MAPPED_BYTES, bytes - start));
+        }
+        return new OffHeapArray(width, segments, MAPPED_SHIFT);
+    }
+
+    /** Returns the number of elements for which I have room. */
+    long capacity() {
+        return ((long) _segments.length << _shift) / _width;
+    }
+
+    /** Make room for elements 0 .. N-1. */
+    void ensure(long n) {
+        long bytes = n * _width;
+        int count = (int) ((bytes + SEGMENT_BYTES - 1) >>> SEGMENT_SHIFT);
+        if (count > _segments.length) {
+            int old = _segments.length;
+            _segments = Arrays.copyOf(_segments,
+                                      Math.max(count, 2 * old));
+            for (int s = old; s < _segments.length; s += 1) {
+                _segments[s] = ByteBuffer.allocateDirect(SEGMENT_BYTES)
+                    .order(ByteOrder.nativeOrder());
+            }
+        }
+    }
+
+    /** Returns int element I. */
+    int getInt(long i) {
+        long b = i << 2;
+        return _segments[(int) (b >>> _shift)].getInt(offset(b));
+    }
+
+    /** Set int element I to X. */
+    void putInt(long i, int x) {
+        long b = i << 2;
+        _segments[(int) (b >>> _shift)].putInt(offset(b), x);
+    }
+
+    /** Returns long element I. */
+    long getLong(long i) {
+        long b = i << 3;
+        return _segments[(int) (b >>> _shift)].getLong(offset(b));
+    }
+
+    /** Returns double element I. */
+    double getDouble(long i) {
+        long b = i << 3;
+        return _segments[(int) (b >>> _shift)].getDouble(offset(b));
+    }
+
+    /** Set double element I to X. */
+    void putDouble(long i, double x) {
+        long b = i << 3;
+        _segments[(int) (b >>> _shift)].putDouble(offset(b), x);
+    }
+
+    /** Release my storage, in the sense described in the class comment:
+     *  my segments become garbage, and their memory is reclaimed when
+     *  the collector gets to them. */
+    void close() {
+        _segments = new ByteBuffer[0];
+    }
+
+    /** Returns the offset of byte B of the array within its segment. */
+    private int offset(long b) {
+        return (int) b & ((1 << _shift) - 1);
+    }
+
+    /** log2 of the size of an allocated segment in bytes. */
+    private static final int SEGMENT_SHIFT = 18;
+    /** Size of an allocated segment in bytes. */
+    private static final int SEGMENT_BYTES = 1 << SEGMENT_SHIFT;
+    /** log2 of the size of a mapped segment in bytes. */
+    private static final int MAPPED_SHIFT = 30;
+    /** Size of a mapped segment in bytes. */
+    private static final long MAPPED_BYTES = 1L << MAPPED_SHIFT;
+
+    /** Size of an element in bytes. */
+    private final int _width;
+    /** My storage. */
+    private ByteBuffer[] _segments;
+    /** log2 of the size of my segments in bytes. */
+    private final int _shift;
+}
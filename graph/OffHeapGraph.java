@@ -0,0 +1,474 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.NoSuchElementException;
+
+/** A directed or undirected graph whose storage lies entirely outside
+ *  the Java heap, so that very large graphs put no load on the garbage
+ *  collector.  Vertices and edges are fixed-size int records in
+ *  segmented direct buffers (see OffHeapArray).  Each edge record holds
+ *  the edge's two ends and links threading it onto a doubly linked list
+ *  of the edges leaving its first end and another of the edges entering
+ *  its second end; each vertex record holds the heads, tails, and
+ *  lengths of its two lists.  Adding an edge and unlinking a found edge
+ *  thus take constant time, and iterating over the neighbors of a vertex
+ *  takes time proportional to its degree.  The records of removed edges
+ *  are reused for new ones.  An undirected edge is on the outgoing list
+ *  of its first end and the incoming list of its second (self-loops only
+ *  on the former).
+ *
+ *  There is no off-heap counterpart of the EdgeIndex that gives
+ *  DirectedGraph and UndirectedGraph constant-time edge lookup, so
+ *  finding the id of edge (u, v), and with it contains(u, v) and
+ *  remove(u, v), takes time proportional to the degree of u.  Prefer
+ *  those classes when such queries on high-degree vertices dominate.
+ *
+ *  An OffHeapGraph must be closed when no longer needed, after which it
+ *  may not be used.  Closing does not free the memory at once: as
+ *  explained for OffHeapArray, it is returned when the garbage collector
+ *  reclaims the underlying direct buffers, and the total allocated at
+ *  any time is bounded by -XX:MaxDirectMemorySize.  Use
+ *  OffHeapLabeledGraph for numeric labels kept off the heap as well.
+ *  @author Eric Huang
+ */
+public class OffHeapGraph extends Graph implements AutoCloseable {
+
+    /** An empty graph, which is directed iff DIRECTED. */
+    public OffHeapGraph(boolean directed) {
+        _directed = directed;
+        _vertexRecords = new OffHeapArray(Integer.BYTES);
+        _edgeRecords = new OffHeapArray(Integer.BYTES);
+        _freeVertex = 1;
+        _nextEdge = 1;
+    }
+
+    /** Release my storage.  I may not be used afterwards. */
+    @Override
+    public void close() {
+        _closed = true;
+        _vertexRecords.close();
+        _edgeRecords.close();
+    }
+
+    @Override
+    public int vertexSize() {
+        checkOpen();
+        return _vertexSize;
+    }
+
+    @Override
+    public int maxVertex() {
+        checkOpen();
+        return _maxVertex;
+    }
+
+    @Override
+    public int edgeSize() {
+        checkOpen();
+        return _edgeSize;
+    }
+
+    @Override
+    public boolean isDirected() {
+        return _directed;
+    }
+
+    @Override
+    public int outDegree(int v) {
+        if (!contains(v)) {
+            return 0;
+        }
+        int d = vertex(v, OUT_DEGREE);
+        return _directed ? d : d + vertex(v, IN_DEGREE);
+    }
+
+    @Override
+    public int inDegree(int v) {
+        if (!_directed) {
+            return outDegree(v);
+        }
+        return contains(v) ? vertex(v, IN_DEGREE) : 0;
+    }
+
+    @Override
+    public boolean contains(int u) {
+        checkOpen();
+        return u > 0 && u <= _maxVertex && vertex(u, PRESENT) != 0;
+    }
+
+    @Override
+    public boolean contains(int u, int v) {
+        return edgeId(u, v) != 0;
+    }
+
+    @Override
+    public int add() {
+        checkOpen();
+        int v = _freeVertex;
+        reserveVertices(v);
+        setVertex(v, PRESENT, 1);
+        _vertexSize += 1;
+        _maxVertex = Math.max(_maxVertex, v);
+        do {
+            _freeVertex += 1;
+        } while (contains(_freeVertex));
+        return v;
+    }
+
+    @Override
+    public int add(int u, int v) {
+        if (contains(u, v)) {
+            throw new IllegalArgumentException("Edge already exists.");
+        }
+        if (!contains(u) || !contains(v)) {
+            throw new IllegalArgumentException("Vertices do not exist.");
+        }
+        return addEdge(u, v);
+    }
+
+    @Override
+    void load(int n, long[] edges, int count) {
+        checkOpen();
+        reserveVertices(n);
+        for (int v = 1; v <= n; v += 1) {
+            setVertex(v, PRESENT, 1);
+        }
+        _vertexSize = n;
+        _maxVertex = n;
+        _freeVertex = n + 1;
+        _edgeRecords.ensure((long) (_nextEdge + count) * EDGE_FIELDS);
+        for (int k = 0; k < count; k += 1) {
+            addEdge((int) (edges[k] >>> Integer.SIZE), (int) edges[k]);
+        }
+    }
+
+    @Override
+    public void remove(int v) {
+        if (!contains(v)) {
+            return;
+        }
+        for (int e = vertex(v, OUT_HEAD); e != 0; ) {
+            int next = edge(e, NEXT_OUT);
+            removeEdge(e);
+            e = next;
+        }
+        for (int e = vertex(v, IN_HEAD); e != 0; ) {
+            int next = edge(e, NEXT_IN);
+            removeEdge(e);
+            e = next;
+        }
+        setVertex(v, PRESENT, 0);
+        _vertexSize -= 1;
+        _freeVertex = Math.min(_freeVertex, v);
+        while (_maxVertex > 0 && !contains(_maxVertex)) {
+            _maxVertex -= 1;
+        }
+    }
+
+    @Override
+    public void remove(int u, int v) {
+        int e = edgeId(u, v);
+        if (e != 0) {
+            removeEdge(e);
+        }
+    }
+
+    @Override
+    public Iteration<Integer> vertices() {
+        return intVertices();
+    }
+
+    @Override
+    public Iteration<Integer> successors(int v) {
+        return intSuccessors(v);
+    }
+
+    @Override
+    public Iteration<Integer> predecessors(int v) {
+        return intPredecessors(v);
+    }
+
+    @Override
+    public IntIteration intVertices() {
+        checkOpen();
+        return new IntIteration() {
+            @Override
+            public boolean hasNext() {
+                while (_v <= _maxVertex && !contains(_v)) {
+                    _v += 1;
+                }
+                return _v <= _maxVertex;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                _v += 1;
+                return _v - 1;
+            }
+
+            /** Next candidate vertex. */
+            private int _v = 1;
+        };
+    }
+
+    @Override
+    public IntIteration intSuccessors(int v) {
+        if (!contains(v)) {
+            return new ListIteration(0, 0);
+        }
+        return new ListIteration(vertex(v, OUT_HEAD),
+                                 _directed ? 0 : vertex(v, IN_HEAD));
+    }
+
+    @Override
+    public IntIteration intPredecessors(int v) {
+        if (!_directed) {
+            return intSuccessors(v);
+        }
+        return new ListIteration(0, contains(v) ? vertex(v, IN_HEAD) : 0);
+    }
+
+    /** Returns an iteration over my edges in order of edge id, delivering
+     *  every edge in the same two-element array. */
+    @Override
+    public Iteration<int[]> edges() {
+        checkOpen();
+        return new Iteration<int[]>() {
+            @Override
+            public boolean hasNext() {
+                while (_e < _nextEdge && edge(_e, FROM) == 0) {
+                    _e += 1;
+                }
+                return _e < _nextEdge;
+            }
+
+            @Override
+            public int[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                _edge[0] = edge(_e, FROM);
+                _edge[1] = edge(_e, TO);
+                _e += 1;
+                return _edge;
+            }
+
+            /** Id of the next candidate edge. */
+            private int _e = 1;
+            /** The array returned by next(). */
+            private final int[] _edge = new int[2];
+        };
+    }
+
+    @Override
+    protected void checkMyVertex(int v) {
+        if (!contains(v)) {
+            throw new IllegalArgumentException("vertex not from Graph");
+        }
+    }
+
+    @Override
+    protected int edgeId(int u, int v) {
+        if (!contains(u)) {
+            return 0;
+        }
+        for (int e = vertex(u, OUT_HEAD); e != 0; e = edge(e, NEXT_OUT)) {
+            if (edge(e, TO) == v) {
+                return e;
+            }
+        }
+        if (!_directed) {
+            for (int e = vertex(u, IN_HEAD); e != 0; e = edge(e, NEXT_IN)) {
+                if (edge(e, FROM) == v) {
+                    return e;
+                }
+            }
+        }
+        return 0;
+    }
+
+    /** An iteration over the far ends of the edges on an outgoing list
+     *  and then an incoming list. */
+    private class ListIteration extends IntIteration {
+        /** An iteration over the outgoing list starting at edge OUT and
+         *  then the incoming list starting at edge IN (0 for empty
+         *  lists). */
+        ListIteration(int out, int in) {
+            _out = out;
+            _in = in;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return _out != 0 || _in != 0;
+        }
+
+        @Override
+        public int nextInt() {
+            int w;
+            if (_out != 0) {
+                w = edge(_out, TO);
+                _out = edge(_out, NEXT_OUT);
+            } else if (_in != 0) {
+                w = edge(_in, FROM);
+                _in = edge(_in, NEXT_IN);
+            } else {
+                throw new NoSuchElementException();
+            }
+            return w;
+        }
+
+        /** Next edge on the outgoing list, or 0. */
+        private int _out;
+        /** Next edge on the incoming list, or 0. */
+        private int _in;
+    }
+
+    /** Throw an exception if I have been closed. */
+    private void checkOpen() {
+        if (_closed) {
+            throw new IllegalStateException("graph is closed");
+        }
+    }
+
+    /** Make room for the records of vertices 1 .. V. */
+    private void reserveVertices(int v) {
+        _vertexRecords.ensure((long) (v + 1) * VERTEX_FIELDS);
+    }
+
+    /** Returns field F of the record for vertex V. */
+    private int vertex(int v, int f) {
+        return _vertexRecords.getInt((long) v * VERTEX_FIELDS + f);
+    }
+
+    /** Set field F of the record for vertex V to X. */
+    private void setVertex(int v, int f, int x) {
+        _vertexRecords.putInt((long) v * VERTEX_FIELDS + f, x);
+    }
+
+    /** Returns field F of the record for edge E. */
+    private int edge(int e, int f) {
+        return _edgeRecords.getInt((long) e * EDGE_FIELDS + f);
+    }
+
+    /** Set field F of the record for edge E to X. */
+    private void setEdge(int e, int f, int x) {
+        _edgeRecords.putInt((long) e * EDGE_FIELDS + f, x);
+    }
+
+    /** Add a new edge (U, V) and return its id, assuming that U and V are
+     *  my vertices and that I have no such edge already. */
+    private int addEdge(int u, int v) {
+        int e;
+        if (_freeEdges != 0) {
+            e = _freeEdges;
+            _freeEdges = edge(e, NEXT_OUT);
+        } else {
+            e = _nextEdge;
+            _nextEdge += 1;
+            _edgeRecords.ensure((long) _nextEdge * EDGE_FIELDS);
+        }
+        setEdge(e, FROM, u);
+        setEdge(e, TO, v);
+        link(e, u, OUT_HEAD, OUT_TAIL, OUT_DEGREE, NEXT_OUT, PREV_OUT);
+        if (_directed || u != v) {
+            link(e, v, IN_HEAD, IN_TAIL, IN_DEGREE, NEXT_IN, PREV_IN);
+        }
+        _edgeSize += 1;
+        return e;
+    }
+
+    /** Remove edge E from both its lists and put its record on the free
+     *  list. */
+    private void removeEdge(int e) {
+        int u = edge(e, FROM), v = edge(e, TO);
+        unlink(e, u, OUT_HEAD, OUT_TAIL, OUT_DEGREE, NEXT_OUT, PREV_OUT);
+        if (_directed || u != v) {
+            unlink(e, v, IN_HEAD, IN_TAIL, IN_DEGREE, NEXT_IN, PREV_IN);
+        }
+        _edgeSize -= 1;
+        setEdge(e, FROM, 0);
+        setEdge(e, TO, 0);
+        setEdge(e, NEXT_OUT, _freeEdges);
+        _freeEdges = e;
+    }
+
+    /** Append edge E to the list of vertex V whose head, tail, and length
+     *  are vertex fields HEAD, TAIL, and DEGREE and whose links are edge
+     *  fields NEXT and PREV. */
+    private void link(int e, int v, int head, int tail, int degree,
+                      int next, int prev) {
+        int last = vertex(v, tail);
+        setEdge(e, prev, last);
+        setEdge(e, next, 0);
+        if (last == 0) {
+            setVertex(v, head, e);
+        } else {
+            setEdge(last, next, e);
+        }
+        setVertex(v, tail, e);
+        setVertex(v, degree, vertex(v, degree) + 1);
+    }
+
+    /** Remove edge E from the list of vertex V, as for link. */
+    private void unlink(int e, int v, int head, int tail, int degree,
+                        int next, int prev) {
+        int p = edge(e, prev), n = edge(e, next);
+        if (p == 0) {
+            setVertex(v, head, n);
+        } else {
+            setEdge(p, next, n);
+        }
+        if (n == 0) {
+            setVertex(v, tail, p);
+        } else {
+            setEdge(n, prev, p);
+        }
+        setVertex(v, degree, vertex(v, degree) - 1);
+    }
+
+    /** Vertex record fields: nonzero iff present. */
+    private static final int PRESENT = 0;
+    /** Vertex record fields: first and last outgoing edges. */
+    private static final int OUT_HEAD = 1, OUT_TAIL = 2;
+    /** Vertex record fields: first and last incoming edges. */
+    private static final int IN_HEAD = 3, IN_TAIL = 4;
+    /** Vertex record fields: lengths of the outgoing and incoming lists. */
+    private static final int OUT_DEGREE = 5, IN_DEGREE = 6;
+    /** Number of fields in a vertex record. */
+    private static final int VERTEX_FIELDS = 7;
+    /** Edge record fields: first and second ends (0 if unused). */
+    private static final int FROM = 0, TO = 1;
+    /** Edge record fields: neighbors on the first end's outgoing list. */
+    private static final int NEXT_OUT = 2, PREV_OUT = 3;
+    /** Edge record fields: neighbors on the second end's incoming list. */
+    private static final int NEXT_IN = 4, PREV_IN = 5;
+    /** Number of fields in an edge record. */
+    private static final int EDGE_FIELDS = 6;
+
+    /** True iff I am directed. */
+    private final boolean _directed;
+    /** Vertex records, indexed by vertex number. */
+    private final OffHeapArray _vertexRecords;
+    /** Edge records, indexed by edge id. */
+    private final OffHeapArray _edgeRecords;
+    /** True iff close() has been called. */
+    private boolean _closed;
+    /** Number of vertices. */
+    private int _vertexSize;
+    /** Largest vertex number present, or 0 if none. */
+    private int _maxVertex;
+    /** The smallest positive vertex number not present. */
+    private int _freeVertex;
+    /** Number of edges. */
+    private int _edgeSize;
+    /** One more than the largest edge id ever used. */
+    private int _nextEdge;
+    /** First of the unused edge records below _nextEdge, linked through
+     *  their NEXT_OUT fields, or 0 if none. */
+    private int _freeEdges;
+}
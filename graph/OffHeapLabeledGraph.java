@@ -0,0 +1,91 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+/** A DoubleLabeledGraph over an OffHeapGraph whose vertex and edge labels
+ *  are also stored off the heap.  Closing an OffHeapLabeledGraph closes
+ *  its underlying graph as well.
+ *  @author Eric Huang
+ */
+public class OffHeapLabeledGraph extends DoubleLabeledGraph
+    implements AutoCloseable {
+
+    /** A labeling of G, which should be empty or unlabeled. */
+    public OffHeapLabeledGraph(OffHeapGraph G) {
+        this(G, new OffHeapColumn(), new OffHeapColumn());
+    }
+
+    /** A labeling of G whose labels are kept in VLABELS and ELABELS. */
+    private OffHeapLabeledGraph(OffHeapGraph G, OffHeapColumn vlabels,
+                                OffHeapColumn elabels) {
+        super(G, vlabels, elabels);
+        _graph = G;
+        _vlabels = vlabels;
+        _elabels = elabels;
+    }
+
+    /** Release my storage and that of my graph.  I may not be used
+     *  afterwards. */
+    @Override
+    public void close() {
+        _graph.close();
+        _vlabels.close();
+        _elabels.close();
+    }
+
+    /** A DoubleColumn kept in an OffHeapArray. */
+    private static class OffHeapColumn extends DoubleColumn {
+
+        @Override
+        public double getDouble(int i) {
+            return i < _size ? _values.getDouble(i) : Double.NaN;
+        }
+
+        @Override
+        public void setDouble(int i, double x) {
+            if (i >= _size) {
+                if (Double.isNaN(x)) {
+                    return;
+                }
+                reserve(i + 1);
+            }
+            _values.putDouble(i, x);
+        }
+
+        @Override
+        public int capacity() {
+            return _size;
+        }
+
+        @Override
+        void reserve(int n) {
+            if (n > _size) {
+                n = grow(_size, n);
+                _values.ensure(n);
+                for (int i = _size; i < n; i += 1) {
+                    _values.putDouble(i, Double.NaN);
+                }
+                _size = n;
+            }
+        }
+
+        /** Release my storage. */
+        void close() {
+            _values.close();
+            _size = 0;
+        }
+
+        /** The labels. */
+        private final OffHeapArray _values = new OffHeapArray(Double.BYTES);
+        /** Number of elements of _values in use (filled with NaN if
+         *  unset). */
+        private int _size;
+    }
+
+    /** The graph I label. */
+    private final OffHeapGraph _graph;
+    /** Vertex labels, indexed by vertex number. */
+    private final OffHeapColumn _vlabels;
+    /** Edge labels, indexed by edge id. */
+    private final OffHeapColumn _elabels;
+}
@@ -0,0 +1,322 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/** A breadth-first search of a graph that processes each level in
+ *  parallel on a ForkJoinPool, for reachability and hop-distance queries
+ *  on large graphs.  The result is the depth (number of edges from the
+ *  nearest source) and the BFS-tree parent of every reached vertex, in
+ *  int arrays indexed by vertex number.
+ *
+ *  Visited vertices are recorded in a bitmap of atomic longs.  Each level
+ *  is computed either top-down, with workers dividing up the current
+ *  frontier and claiming unvisited successors by compare-and-set, or
+ *  bottom-up, with workers dividing up the vertices and having each
+ *  unvisited vertex look among its predecessors for one in the frontier.
+ *  As in Beamer's direction-optimizing BFS, the search turns bottom-up
+ *  when the edges leaving the frontier outnumber those left unexplored
+ *  by a factor of ALPHA, and back to top-down when the frontier shrinks
+ *  below 1/BETA of the vertices.  Bottom-up steps use intPredecessors,
+ *  so they should be turned off (see the constructors) for a directed
+ *  graph that does not index its predecessors, such as a
+ *  DirectedGraph(false), where each call would scan all edges.
+ *
+ *  The graph must not change during a search.  Which of several possible
+ *  parents a vertex gets is not specified, but depths are exact.
+ *  @author Eric Huang
+ */
+public class ParallelBreadthFirstSearch {
+
+    /** A search of G using the common ForkJoinPool.  Bottom-up steps are
+     *  used only if G can find predecessors without scanning all its
+     *  edges. */
+    public ParallelBreadthFirstSearch(Graph G) {
+        this(G, ForkJoinPool.commonPool(), G.indexesPredecessors());
+    }
+
+    /** A search of G whose levels are computed by POOL, switching to
+     *  bottom-up steps when profitable iff DIRECTIONOPTIMIZING. */
+    public ParallelBreadthFirstSearch(Graph G, ForkJoinPool pool,
+                                      boolean directionOptimizing) {
+        _G = G;
+        _pool = pool;
+        _directionOptimizing = directionOptimizing;
+        _depths = new int[0];
+        _parents = new int[0];
+    }
+
+    /** Search from SOURCES, all of which are at depth 0, replacing the
+     *  results of any previous search. */
+    public void search(int... sources) {
+        int n = _G.maxVertex() + 1;
+        int words = (n + 63) >>> 6;
+        _visited = new AtomicLongArray(words);
+        _depths = new int[n];
+        Arrays.fill(_depths, -1);
+        _parents = new int[n];
+        _frontier = new int[Math.max(1, n)];
+        _next = new int[_frontier.length];
+        _frontierBits = new long[words];
+        _nextBits = new long[words];
+        _bottomUpSteps = 0;
+
+        int size = 0;
+        long frontierArcs = 0;
+        for (int v : sources) {
+            _G.checkMyVertex(v);
+            if (claim(v)) {
+                _depths[v] = 0;
+                _frontier[size] = v;
+                size += 1;
+                frontierArcs += _G.outDegree(v);
+            }
+        }
+        long unexploredArcs =
+            (_G.isDirected() ? 1L : 2L) * _G.edgeSize() - frontierArcs;
+        boolean bottomUp = false;
+        for (int level = 0; size > 0; level += 1) {
+            if (!bottomUp && _directionOptimizing
+                && frontierArcs > unexploredArcs / ALPHA) {
+                bottomUp = true;
+                Arrays.fill(_frontierBits, 0);
+                for (int k = 0; k < size; k += 1) {
+                    int v = _frontier[k];
+                    _frontierBits[v >>> 6] |= 1L << v;
+                }
+            } else if (bottomUp && size < n / BETA) {
+                bottomUp = false;
+                size = 0;
+                for (int w = 0; w < words; w += 1) {
+                    for (long bits = _frontierBits[w]; bits != 0;
+                         bits &= bits - 1) {
+                        _frontier[size] = (w << 6)
+                            + Long.numberOfTrailingZeros(bits);
+                        size += 1;
+                    }
+                }
+            }
+            _nextSize.set(0);
+            _nextArcs.set(0);
+            if (bottomUp) {
+                bottomUpStep(words, level + 1);
+                long[] t = _frontierBits;
+                _frontierBits = _nextBits;
+                _nextBits = t;
+                _bottomUpSteps += 1;
+            } else {
+                topDownStep(size, level + 1);
+                int[] t = _frontier;
+                _frontier = _next;
+                _next = t;
+            }
+            size = _nextSize.get();
+            frontierArcs = _nextArcs.get();
+            unexploredArcs -= frontierArcs;
+        }
+        _frontier = _next = null;
+        _frontierBits = _nextBits = null;
+        _visited = null;
+    }
+
+    /** Returns the depth of each vertex from the last search, indexed by
+     *  vertex number, or -1 for vertices not reached. */
+    public int[] depths() {
+        return _depths;
+    }
+
+    /** Returns the parent of each vertex in the BFS tree of the last
+     *  search, indexed by vertex number, or 0 for sources and vertices
+     *  not reached. */
+    public int[] parents() {
+        return _parents;
+    }
+
+    /** Returns true iff V was reached by the last search. */
+    public boolean reached(int v) {
+        return v > 0 && v < _depths.length && _depths[v] >= 0;
+    }
+
+    /** Returns the number of levels of the last search computed
+     *  bottom-up. */
+    int bottomUpSteps() {
+        return _bottomUpSteps;
+    }
+
+    /** Compute the vertices at depth DEPTH from the SIZE vertices of
+     *  _frontier, into _next. */
+    private void topDownStep(int size, int depth) {
+        parallelFor(size, FRONTIER_GRAIN, (lo, hi) -> {
+            int[] found = new int[FRONTIER_GRAIN];
+            int count = 0;
+            long arcs = 0;
+            for (int k = lo; k < hi; k += 1) {
+                int u = _frontier[k];
+                for (IntIteration succs = _G.intSuccessors(u);
+                     succs.hasNext(); ) {
+                    int v = succs.nextInt();
+                    if (claim(v)) {
+                        _depths[v] = depth;
+                        _parents[v] = u;
+                        arcs += _G.outDegree(v);
+                        if (count == found.length) {
+                            found = Arrays.copyOf(found, 2 * count);
+                        }
+                        found[count] = v;
+                        count += 1;
+                    }
+                }
+            }
+            int start = _nextSize.getAndAdd(count);
+            System.arraycopy(found, 0, _next, start, count);
+            _nextArcs.addAndGet(arcs);
+        });
+    }
+
+    /** Compute the vertices at depth DEPTH from the vertices marked in
+     *  _frontierBits, into _nextBits, examining WORDS words. */
+    private void bottomUpStep(int words, int depth) {
+        parallelFor(words, WORD_GRAIN, (lo, hi) -> {
+            int count = 0;
+            long arcs = 0;
+            for (int w = lo; w < hi; w += 1) {
+                long visited = _visited.get(w);
+                long found = 0;
+                for (long bits = ~visited; bits != 0; bits &= bits - 1) {
+                    int v = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    if (v >= _depths.length) {
+                        break;
+                    } else if (!_G.contains(v)) {
+                        continue;
+                    }
+                    for (IntIteration preds = _G.intPredecessors(v);
+                         preds.hasNext(); ) {
+                        int u = preds.nextInt();
+                        if ((_frontierBits[u >>> 6] & (1L << u)) != 0) {
+                            _depths[v] = depth;
+                            _parents[v] = u;
+                            found |= 1L << v;
+                            count += 1;
+                            arcs += _G.outDegree(v);
+                            break;
+                        }
+                    }
+                }
+                _nextBits[w] = found;
+                if (found != 0) {
+                    _visited.set(w, visited | found);
+                }
+            }
+            _nextSize.addAndGet(count);
+            _nextArcs.addAndGet(arcs);
+        });
+    }
+
+    /** Mark V visited.  Returns true iff it was not already visited. */
+    private boolean claim(int v) {
+        int w = v >>> 6;
+        long bit = 1L << v;
+        while (true) {
+            long old = _visited.get(w);
+            if ((old & bit) != 0) {
+                return false;
+            } else if (_visited.compareAndSet(w, old, old | bit)) {
+                return true;
+            }
+        }
+    }
+
+    /** Work on a range of indices. */
+    private interface RangeBody {
+        /** Process indices LO .. HI-1. */
+        void run(int lo, int hi);
+    }
+
+    /** Apply BODY to 0 .. N-1 on my pool, in pieces of at most GRAIN
+     *  indices. */
+    private void parallelFor(int n, int grain, RangeBody body) {
+        if (n <= grain) {
+            body.run(0, n);
+        } else {
+            _pool.invoke(new RangeTask(body, 0, n, grain));
+        }
+    }
+
+    /** A task that applies a RangeBody to a range of indices, splitting
+     *  it in half until the pieces are small enough. */
+    private static class RangeTask extends RecursiveAction {
+
+        /** A task applying BODY to LO .. HI-1 in pieces of at most GRAIN
+         *  indices. */
+        RangeTask(RangeBody body, int lo, int hi, int grain) {
+            _body = body;
+            _lo = lo;
+            _hi = hi;
+            _grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            if (_hi - _lo <= _grain) {
+                _body.run(_lo, _hi);
+            } else {
+                int mid = (_lo + _hi) >>> 1;
+                invokeAll(new RangeTask(_body, _lo, mid, _grain),
+                          new RangeTask(_body, mid, _hi, _grain));
+            }
+        }
+
+        /** The work to do. */
+        private final RangeBody _body;
+        /** Bounds of my range. */
+        private final int _lo, _hi;
+        /** Largest range processed without splitting. */
+        private final int _grain;
+    }
+
+    /** Ratio of unexplored edges to frontier edges below which the
+     *  search turns bottom-up. */
+    static final int ALPHA = 14;
+    /** Ratio of vertices to frontier vertices above which the search
+     *  turns back to top-down. */
+    static final int BETA = 24;
+    /** Number of frontier vertices handled by one top-down task. */
+    private static final int FRONTIER_GRAIN = 1024;
+    /** Number of bitmap words (of 64 vertices) handled by one bottom-up
+     *  task. */
+    private static final int WORD_GRAIN = 64;
+
+    /** The graph searched. */
+    private final Graph _G;
+    /** The pool that computes levels. */
+    private final ForkJoinPool _pool;
+    /** True iff bottom-up steps may be used. */
+    private final boolean _directionOptimizing;
+    /** Depths from the last search. */
+    private int[] _depths;
+    /** Parents from the last search. */
+    private int[] _parents;
+    /** Bitmap of visited vertices (during a search). */
+    private AtomicLongArray _visited;
+    /** The current frontier, for a top-down step. */
+    private int[] _frontier;
+    /** The next frontier, built by a top-down step. */
+    private int[] _next;
+    /** The current frontier as a bitmap, for a bottom-up step. */
+    private long[] _frontierBits;
+    /** The next frontier, built by a bottom-up step. */
+    private long[] _nextBits;
+    /** Number of vertices found by the current step. */
+    private final AtomicInteger _nextSize = new AtomicInteger();
+    /** Sum of the out-degrees of the vertices found by the current
+     *  step. */
+    private final AtomicLong _nextArcs = new AtomicLong();
+    /** Number of bottom-up steps in the last search. */
+    private int _bottomUpSteps;
+}
@@ -2,11 +2,9 @@ package graph;
 
 /* See restrictions in Graph.java. */
 
-import java.util.PriorityQueue;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Collections;
-import java.util.Comparator;
 
 /** The shortest paths through an edge-weighted graph.
  *  By overrriding methods getWeight, setWeight, getPredecessor, and
@@ -27,38 +25,31 @@ public abstract class ShortestPaths {
         _G = G;
         _source = source;
         _dest = dest;
-        _lG = new LabeledGraph<Double, Double>(G);
+        _lG = new DoubleLabeledGraph(G);
         _shortestpath = new LabeledGraph<Integer, Integer>(G);
-        _fringe = new PriorityQueue<Integer>(new DistanceComparator<Integer>());
-    }
-
-    /** Comparator of type INTEGER using their distances. */
-    private class DistanceComparator<Integer> implements Comparator<Integer> {
-
-        /** Compares V against W. Returns positive, 0, or negative, if
-         * V is less than, equal to, or more than W. */
-        public int compare(Integer v, Integer w) {
-            return Double.compare(getWeight((int) v), getWeight((int) w));
-        }
+        _fringe = new IntPriorityQueue(
+            (v, w) -> Double.compare(getWeight(v), getWeight(w)));
     }
 
     /** Initialize the shortest paths.  Must be called before using
      *  getWeight, getPredecessor, and pathTo. */
     public void setPaths() {
-        for (int vertex : _G.vertices()) {
-            _lG.setLabel(vertex, Double.POSITIVE_INFINITY);
+        for (IntIteration verts = _G.intVertices(); verts.hasNext(); ) {
+            int vertex = verts.nextInt();
+            _lG.setDouble(vertex, Double.POSITIVE_INFINITY);
             _shortestpath.setLabel(vertex, null);
         }
-        _lG.setLabel(_source, 0.0);
-        for (int vertex : _G.vertices()) {
-            _fringe.add(vertex);
+        _lG.setDouble(_source, 0.0);
+        for (IntIteration verts = _G.intVertices(); verts.hasNext(); ) {
+            _fringe.add(verts.nextInt());
         }
         while (!_fringe.isEmpty()) {
             int v = _fringe.remove();
-            for (int w : _G.successors(v)) {
+            for (IntIteration succs = _G.intSuccessors(v); succs.hasNext(); ) {
+                int w = succs.nextInt();
                 if (getWeight(v) + getWeight(v, w) < getWeight(w)) {
                     setWeight(w, getWeight(v) + getWeight(v, w));
-                    _fringe.remove(w); _fringe.add(w);
+                    _fringe.add(w);
                     _shortestpath.setLabel(w, v);
                 }
             }
@@ -129,8 +120,9 @@ public abstract class ShortestPaths {
         return pathTo(getDest());
     }
 
-    /** Returns the labeled graph of this. */
-    public LabeledGraph<Double, Double> getLG() {
+    /** Returns the labeled graph of this, whose vertex labels are the
+     *  current weights. */
+    public DoubleLabeledGraph getLG() {
         return _lG;
     }
 
@@ -146,9 +138,10 @@ public abstract class ShortestPaths {
     /** The target vertex. */
     private final int _dest;
     /** My labelled graph. */
-    private final LabeledGraph<Double, Double> _lG;
-    /** The fringe.  */
-    private final PriorityQueue<Integer> _fringe;
+    private final DoubleLabeledGraph _lG;
+    /** The fringe, ordered by weight.  Adding a vertex already in it
+     *  moves it to its new place. */
+    private final IntPriorityQueue _fringe;
     /** Labelled graph of shortest paths. */
     private final LabeledGraph<Integer, Integer> _shortestpath;
 }
@@ -28,15 +28,15 @@ public abstract class SimpleShortestPaths extends ShortestPaths {
 
     @Override
     public double getWeight(int v) {
-        if (getLG().contains(v)) {
-            return getLG().getLabel(v);
+        if (_lG.contains(v)) {
+            return _lG.getDouble(v);
         }
         return Integer.MAX_VALUE;
     }
 
     @Override
     protected void setWeight(int v, double w) {
-        getLG().setLabel(v, w);
+        _lG.setDouble(v, w);
     }
 
     @Override
@@ -50,7 +50,7 @@ public abstract class SimpleShortestPaths extends ShortestPaths {
     }
 
     /** The labelled graph. */
-    private LabeledGraph<Double, Double> _lG;
+    private final DoubleLabeledGraph _lG;
     /** Labelled graph of shortest paths. */
     private final LabeledGraph<Integer, Integer> _shortestpath;
 }
@@ -0,0 +1,371 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.function.IntPredicate;
+
+/** A read-only view of the part of a Graph selected by predicates on its
+ *  vertices and edges, computed on the fly without copying.  A vertex of
+ *  the underlying graph is in the view iff it satisfies the vertex
+ *  predicate, and an edge is in the view iff both its ends are and it
+ *  satisfies the edge predicate.  For an undirected graph, the edge
+ *  predicate is always called with the smaller end first.  Edges keep
+ *  their ids from the underlying graph.
+ *
+ *  Successors, predecessors, and edges are filtered as they are
+ *  iterated, so changes to the underlying graph (or to whatever the
+ *  predicates consult) show through immediately.  Degrees, however, may
+ *  be cached (see cacheDegrees), in which case invalidate must be called
+ *  after such changes.  All modifying operations throw
+ *  UnsupportedOperationException.
+ *  @author Eric Huang
+ */
+public class SubgraphView extends GraphFilter {
+
+    /** A test applied to edges. */
+    @FunctionalInterface
+    public interface EdgePredicate {
+        /** Returns true iff the edge (U, V) is to be included. */
+        boolean test(int u, int v);
+    }
+
+    /** A view of the vertices of G that satisfy VERTICES, and of all the
+     *  edges between them. */
+    public SubgraphView(Graph G, IntPredicate vertices) {
+        this(G, vertices, null);
+    }
+
+    /** A view of the vertices of G that satisfy VERTICES (all of them, if
+     *  null) and of the edges between them that satisfy EDGES (all of
+     *  them, if null). */
+    public SubgraphView(Graph G, IntPredicate vertices, EdgePredicate edges) {
+        super(G);
+        _G = G;
+        _vertexTest = vertices;
+        _edgeTest = edges;
+    }
+
+    /** Remember the degree of each vertex once computed, rather than
+     *  counting its filtered edges on every call to outDegree or
+     *  inDegree.  Returns this view. */
+    public SubgraphView cacheDegrees() {
+        _cached = true;
+        invalidate();
+        return this;
+    }
+
+    /** Forget all cached degrees.  Must be called after any change to the
+     *  underlying graph or predicates if degrees are cached. */
+    public void invalidate() {
+        _outDegrees = _inDegrees = null;
+    }
+
+    @Override
+    public int vertexSize() {
+        int n = 0;
+        for (IntIteration verts = intVertices(); verts.hasNext(); ) {
+            verts.nextInt();
+            n += 1;
+        }
+        return n;
+    }
+
+    @Override
+    public int maxVertex() {
+        for (int v = _G.maxVertex(); v > 0; v -= 1) {
+            if (contains(v)) {
+                return v;
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public int edgeSize() {
+        int n = 0;
+        for (Iteration<int[]> edges = edges(); edges.hasNext(); ) {
+            edges.next();
+            n += 1;
+        }
+        return n;
+    }
+
+    @Override
+    public int outDegree(int v) {
+        if (!contains(v)) {
+            return 0;
+        } else if (!_cached) {
+            return count(intSuccessors(v));
+        }
+        _outDegrees = reserve(_outDegrees, v);
+        if (_outDegrees[v] < 0) {
+            _outDegrees[v] = count(intSuccessors(v));
+        }
+        return _outDegrees[v];
+    }
+
+    @Override
+    public int inDegree(int v) {
+        if (!isDirected()) {
+            return outDegree(v);
+        } else if (!contains(v)) {
+            return 0;
+        } else if (!_cached) {
+            return count(intPredecessors(v));
+        }
+        _inDegrees = reserve(_inDegrees, v);
+        if (_inDegrees[v] < 0) {
+            _inDegrees[v] = count(intPredecessors(v));
+        }
+        return _inDegrees[v];
+    }
+
+    @Override
+    public boolean contains(int u) {
+        return _G.contains(u) && (_vertexTest == null || _vertexTest.test(u));
+    }
+
+    @Override
+    public boolean contains(int u, int v) {
+        return contains(u) && contains(v) && _G.contains(u, v)
+            && passes(u, v);
+    }
+
+    @Override
+    public int add() {
+        throw new UnsupportedOperationException("graph is read-only");
+    }
+
+    @Override
+    public int add(int u, int v) {
+        throw new UnsupportedOperationException("graph is read-only");
+    }
+
+    @Override
+    public void remove(int v) {
+        throw new UnsupportedOperationException("graph is read-only");
+    }
+
+    @Override
+    public void remove(int u, int v) {
+        throw new UnsupportedOperationException("graph is read-only");
+    }
+
+    @Override
+    public void removeAll(int[] vertices) {
+        throw new UnsupportedOperationException("graph is read-only");
+    }
+
+    @Override
+    public void removeEdges(int[] pairs) {
+        throw new UnsupportedOperationException("graph is read-only");
+    }
+
+    @Override
+    public Iteration<Integer> vertices() {
+        return intVertices();
+    }
+
+    @Override
+    public Iteration<Integer> successors(int v) {
+        return intSuccessors(v);
+    }
+
+    @Override
+    public Iteration<Integer> predecessors(int v) {
+        return intPredecessors(v);
+    }
+
+    @Override
+    public IntIteration intVertices() {
+        return new Filtered(_G.intVertices(), 0, false);
+    }
+
+    @Override
+    public IntIteration intSuccessors(int v) {
+        if (!contains(v)) {
+            return new Filtered(null, v, false);
+        }
+        return new Filtered(_G.intSuccessors(v), v, true);
+    }
+
+    @Override
+    public IntIteration intPredecessors(int v) {
+        if (!contains(v)) {
+            return new Filtered(null, v, false);
+        }
+        return new Filtered(_G.intPredecessors(v), -v, true);
+    }
+
+    /** Returns an iteration over my edges in order of their first ends,
+     *  delivering every edge in the same two-element array.  Each
+     *  undirected edge appears once, with its smaller end first. */
+    @Override
+    public Iteration<int[]> edges() {
+        return new Iteration<int[]>() {
+            @Override
+            public boolean hasNext() {
+                if (_v != 0) {
+                    return true;
+                }
+                while (true) {
+                    while (_succs != null && _succs.hasNext()) {
+                        _v = _succs.nextInt();
+                        if (isDirected() || _v >= _u) {
+                            return true;
+                        }
+                    }
+                    if (!_verts.hasNext()) {
+                        _v = 0;
+                        return false;
+                    }
+                    _u = _verts.nextInt();
+                    _succs = intSuccessors(_u);
+                }
+            }
+
+            @Override
+            public int[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                _edge[0] = _u;
+                _edge[1] = _v;
+                _v = 0;
+                return _edge;
+            }
+
+            /** Remaining vertices. */
+            private final IntIteration _verts = intVertices();
+            /** First end of the current edge. */
+            private int _u;
+            /** Second end of the pending edge, or 0 if none. */
+            private int _v;
+            /** Remaining successors of _u. */
+            private IntIteration _succs;
+            /** The array returned by next(). */
+            private final int[] _edge = new int[2];
+        };
+    }
+
+    @Override
+    protected int edgeId(int u, int v) {
+        return contains(u, v) ? _G.edgeId(u, v) : 0;
+    }
+
+    @Override
+    void load(int n, long[] edges, int count) {
+        throw new UnsupportedOperationException("graph is read-only");
+    }
+
+    @Override
+    int[] compactEdges() {
+        throw new UnsupportedOperationException("graph is read-only");
+    }
+
+    @Override
+    protected void checkMyVertex(int v) {
+        if (!contains(v)) {
+            throw new IllegalArgumentException("vertex not from Graph");
+        }
+    }
+
+    /** The vertices delivered by an iteration over the underlying graph
+     *  that are in this view and, for neighbor lists, are joined to a
+     *  given vertex by an edge of this view. */
+    private class Filtered extends IntIteration {
+
+        /** The members of BASE (empty if null) that are my vertices.  If
+         *  NEIGHBORS, BASE lists successors of END (if END > 0) or
+         *  predecessors of -END, and the joining edge must also pass. */
+        Filtered(IntIteration base, int end, boolean neighbors) {
+            _base = base;
+            _end = end;
+            _neighbors = neighbors;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (_next == 0 && _base != null && _base.hasNext()) {
+                int w = _base.nextInt();
+                if (contains(w)
+                    && (!_neighbors
+                        || (_end > 0 ? passes(_end, w) : passes(w, -_end)))) {
+                    _next = w;
+                }
+            }
+            return _next != 0;
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int w = _next;
+            _next = 0;
+            return w;
+        }
+
+        /** The unfiltered values. */
+        private final IntIteration _base;
+        /** The vertex whose neighbors are delivered (negated for
+         *  predecessors). */
+        private final int _end;
+        /** True iff delivering neighbors of _end. */
+        private final boolean _neighbors;
+        /** The next value to deliver, or 0 if not yet found. */
+        private int _next;
+    }
+
+    /** Returns true iff the edge (U, V) of the underlying graph satisfies
+     *  the edge predicate. */
+    private boolean passes(int u, int v) {
+        if (_edgeTest == null) {
+            return true;
+        } else if (isDirected() || u <= v) {
+            return _edgeTest.test(u, v);
+        } else {
+            return _edgeTest.test(v, u);
+        }
+    }
+
+    /** Returns the number of values remaining in ITER. */
+    private static int count(IntIteration iter) {
+        int n = 0;
+        while (iter.hasNext()) {
+            iter.nextInt();
+            n += 1;
+        }
+        return n;
+    }
+
+    /** Returns DEGREES, or a larger copy filled with -1 (or a new array,
+     *  if it is null) if needed to have an element V. */
+    private static int[] reserve(int[] degrees, int v) {
+        int old = degrees == null ? 0 : degrees.length;
+        if (v < old) {
+            return degrees;
+        }
+        int[] result = degrees == null ? new int[0] : degrees;
+        result = Arrays.copyOf(result, Math.max(v + 1, 2 * old));
+        Arrays.fill(result, old, result.length, -1);
+        return result;
+    }
+
+    /** The underlying graph. */
+    private final Graph _G;
+    /** Test for vertices, or null to accept all. */
+    private final IntPredicate _vertexTest;
+    /** Test for edges, or null to accept all. */
+    private final EdgePredicate _edgeTest;
+    /** True iff degrees are cached. */
+    private boolean _cached;
+    /** Cached out-degrees, indexed by vertex (-1 if not known), or null. */
+    private int[] _outDegrees;
+    /** Cached in-degrees of a directed graph, indexed by vertex (-1 if not
+     *  known), or null. */
+    private int[] _inDegrees;
+}
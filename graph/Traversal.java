@@ -3,7 +3,6 @@ package graph;
 /* See restrictions in Graph.java. */
 
 import java.util.Arrays;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Queue;
 
@@ -15,37 +14,64 @@ import java.util.Queue;
  *
  *  Generally, the client will extend Traversal.  By overriding the visit
  *  method, the client can determine what happens when a node is visited.
- *  By supplying an appropriate type of Queue object to the constructor,
- *  the client can control the behavior of the fringe. By overriding the
+ *  By supplying an appropriate type of Queue object or IntFringe to the
+ *  constructor, the client can control the behavior of the fringe (an
+ *  IntFringe avoids boxing vertex numbers). By overriding the
  *  shouldPostVisit and postVisit methods, the client can arrange for
  *  post-visits of a node (as in depth-first search).  By overriding
  *  the reverseSuccessors and processSuccessor methods, the client can control
  *  the addition of neighbor vertices to the fringe when a vertex is visited.
  *
  *  Traversals may be interrupted or restarted, remembering the previously
- *  marked vertices.
+ *  marked vertices.  Marks are kept in an array indexed by vertex, each
+ *  entry holding the generation (see clear) in which its vertex was last
+ *  marked, so that marking, testing marks, and clearing all marks take
+ *  constant time.
  *  @author Eric Huang
  */
 public abstract class Traversal {
 
     /** A Traversal of G, using FRINGE as the fringe. */
     protected Traversal(Graph G, Queue<Integer> fringe) {
+        this(G, fringe, IntFringe.of(fringe));
+    }
+
+    /** A Traversal of G, using FRINGE as the fringe.  The field _fringe
+     *  is then a Queue view of it (see IntFringe.asQueue). */
+    protected Traversal(Graph G, IntFringe fringe) {
+        this(G, fringe.asQueue(), fringe);
+    }
+
+    /** A Traversal of G whose fringe is both QUEUE and INTS, two views of
+     *  the same values. */
+    private Traversal(Graph G, Queue<Integer> queue, IntFringe ints) {
         _G = G;
-        _fringe = fringe;
+        _fringe = queue;
+        _ints = ints;
+        _marks = new int[G.maxVertex() + 1];
+        _postMarks = new int[_marks.length];
+        _generation = 1;
     }
 
-    /** Unmark all vertices in the graph. */
+    /** Unmark all vertices in the graph.  This simply starts a new
+     *  generation, except on the rare occasions when the generation number
+     *  wraps around to 0, when it resets all marks explicitly. */
     public void clear() {
-        marked = new ArrayList<Integer>();
+        _generation += 1;
+        if (_generation == 0) {
+            Arrays.fill(_marks, 0);
+            Arrays.fill(_postMarks, 0);
+            _generation = 1;
+        }
     }
 
     /** Initialize the fringe to V0 and perform a traversal. */
     public void traverse(Collection<Integer> V0) {
         for (int element : V0) {
-            _fringe.add(element);
+            _ints.add(element);
         }
-        while (!_fringe.isEmpty()) {
-            int v = _fringe.remove();
+        while (!_ints.isEmpty()) {
+            int v = _ints.remove();
             boolean cont;
             if (needPostVisit(v)) {
                 cont = postVisit(v);
@@ -60,9 +86,9 @@ public abstract class Traversal {
                     break;
                 }
                 if (shouldPostVisit(v)) {
-                    _fringe.remove(v);
-                    _fringe.add(v);
-                    _postVisit.add(v);
+                    _ints.remove(v);
+                    _ints.add(v);
+                    _postMarks = stamp(_postMarks, v);
                 }
                 processSuccessors(v);
             }
@@ -77,12 +103,12 @@ public abstract class Traversal {
 
     /** Returns true iff V has been marked. */
     protected boolean marked(int v) {
-        return marked.contains(v);
+        return v < _marks.length && _marks[v] == _generation;
     }
 
     /** Mark vertex V. */
     protected void mark(int v) {
-        marked.add(v);
+        _marks = stamp(_marks, v);
     }
 
     /** Perform a visit on vertex V.  Returns false iff the traversal is to
@@ -100,7 +126,7 @@ public abstract class Traversal {
 
     /** Returns true if need to post visit V. */
     protected boolean needPostVisit(int v) {
-        return _postVisit.contains(v);
+        return v < _postMarks.length && _postMarks[v] == _generation;
     }
 
     /** Revisit vertex V after traversing its successors.  Returns false iff
@@ -118,9 +144,10 @@ public abstract class Traversal {
      *  default implementation simply processes each successor using
      *  processSuccessor. */
     protected void processSuccessors(int u) {
-        for (int v : _G.successors(u)) {
+        for (IntIteration succs = _G.intSuccessors(u); succs.hasNext(); ) {
+            int v = succs.nextInt();
             if (processSuccessor(u, v)) {
-                _fringe.add(v);
+                _ints.add(v);
             }
         }
     }
@@ -131,12 +158,30 @@ public abstract class Traversal {
         return !marked(v);
     }
 
+    /** Set MARKS[V] to the current generation, returning MARKS or, if it
+     *  is too short, a larger copy. */
+    private int[] stamp(int[] marks, int v) {
+        if (v >= marks.length) {
+            marks = Arrays.copyOf(marks, Math.max(v + 1, 2 * marks.length));
+        }
+        marks[v] = _generation;
+        return marks;
+    }
+
     /** The graph being traversed. */
     private final Graph _G;
-    /** The fringe. */
+    /** The fringe, as a Queue: the one given to the constructor, or a
+     *  view of _ints. */
     protected final Queue<Integer> _fringe;
-    /** List of marked vertices. */
-    private ArrayList<Integer> marked = new ArrayList<Integer>();
-    /** List of vertices for needPostVisit. */
-    private ArrayList<Integer> _postVisit = new ArrayList<Integer>();
+    /** The fringe, as an IntFringe, through which vertices are added and
+     *  removed without boxing. */
+    protected final IntFringe _ints;
+    /** The generation in which each vertex was last marked. */
+    private int[] _marks;
+    /** The generation in which each vertex was last scheduled for
+     *  needPostVisit. */
+    private int[] _postMarks;
+    /** The current generation: vertices are marked iff their entries in
+     *  _marks equal it. */
+    private int _generation;
 }
@@ -1,11 +1,18 @@
 package graph;
 
 import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.LinkedList;
+import java.util.Queue;
 import java.util.Collections;
+import java.util.Random;
 
 public class TraversalTest {
     private class BFS extends Traversal {
@@ -45,6 +52,333 @@ public class TraversalTest {
         assertEquals("[1, 2, 4, 7, 5, 6, 3, 8]", list.toString());
     }
 
+    private class DFS extends DepthFirstTraversal {
+
+        protected DFS(Graph G, ArrayList<Integer> pre,
+                      ArrayList<Integer> post) {
+            super(G);
+            _pre = pre;
+            _post = post;
+        }
+
+        @Override
+        public boolean visit(int v) {
+            _pre.add(v);
+            return true;
+        }
+
+        @Override
+        public boolean postVisit(int v) {
+            _post.add(v);
+            return true;
+        }
+
+        @Override
+        public boolean shouldPostVisit(int v) {
+            return true;
+        }
+
+        ArrayList<Integer> _pre, _post;
+    }
+
+    @Test
+    public void depthFirstEngine() {
+        Graph g  = new UndirectedGraph();
+        for (int i = 1; i <= 10; i++) {
+            g.add();
+        }
+        g.add(1, 2);
+        g.add(1, 4);
+        g.add(1, 7);
+        g.add(2, 5);
+        g.add(2, 6);
+        g.add(5, 7);
+        g.add(4, 6);
+        g.add(6, 3);
+        g.add(3, 8);
+        ArrayList<Integer> pre = new ArrayList<Integer>();
+        ArrayList<Integer> post = new ArrayList<Integer>();
+        new DFS(g, pre, post).traverse(1);
+        assertEquals("[1, 7, 5, 2, 6, 3, 8, 4]", pre.toString());
+        assertEquals("[8, 3, 4, 6, 2, 5, 7, 1]", post.toString());
+
+        Graph dag = new DirectedGraph();
+        for (int i = 1; i <= 4; i++) {
+            dag.add();
+        }
+        dag.add(1, 2);
+        dag.add(1, 3);
+        dag.add(1, 4);
+        dag.add(2, 3);
+        dag.add(2, 4);
+        dag.add(3, 4);
+        pre.clear();
+        post.clear();
+        new DFS(dag, pre, post).traverse(1);
+        assertEquals("[4, 3, 2, 1]", post.toString());
+    }
+
+    @Test
+    public void depthFirstResumes() {
+        Graph g = new DirectedGraph();
+        for (int i = 1; i <= 6; i++) {
+            g.add();
+        }
+        g.add(1, 2);
+        g.add(2, 3);
+        g.add(2, 4);
+        g.add(1, 5);
+        g.add(5, 6);
+        final ArrayList<Integer> pre = new ArrayList<Integer>();
+        final ArrayList<Integer> post = new ArrayList<Integer>();
+        DFS dfs = new DFS(g, pre, post) {
+            @Override
+            public boolean postVisit(int v) {
+                super.postVisit(v);
+                return v != 4;
+            }
+
+            @Override
+            protected void processSuccessors(int u) {
+                if (u != 5) {
+                    super.processSuccessors(u);
+                }
+            }
+        };
+        dfs.traverse(1);
+        assertEquals("[1, 5, 2, 4]", pre.toString());
+        assertEquals("[5, 4]", post.toString());
+        dfs.traverse(Arrays.<Integer>asList());
+        assertEquals("[1, 5, 2, 4, 3]", pre.toString());
+        assertEquals("[5, 4, 3, 2, 1]", post.toString());
+    }
+
+    @Test
+    public void deepDepthFirst() {
+        Graph g = new DirectedGraph();
+        int n = 1000000;
+        for (int i = 1; i <= n; i++) {
+            g.add();
+        }
+        for (int i = 1; i < n; i++) {
+            g.add(i, i + 1);
+        }
+        ArrayList<Integer> pre = new ArrayList<Integer>();
+        ArrayList<Integer> post = new ArrayList<Integer>();
+        new DFS(g, pre, post).traverse(1);
+        assertEquals(n, post.size());
+        assertEquals(n, (int) post.get(0));
+        assertEquals(1, (int) post.get(n - 1));
+    }
+
+    /** Returns the depths of the vertices of G from SOURCE, computed
+     *  sequentially. */
+    private static int[] bfsDepths(Graph g, int source) {
+        int[] depths = new int[g.maxVertex() + 1];
+        Arrays.fill(depths, -1);
+        depths[source] = 0;
+        LinkedList<Integer> queue = new LinkedList<Integer>();
+        queue.add(source);
+        while (!queue.isEmpty()) {
+            int u = queue.remove();
+            for (int v : g.successors(u)) {
+                if (depths[v] < 0) {
+                    depths[v] = depths[u] + 1;
+                    queue.add(v);
+                }
+            }
+        }
+        return depths;
+    }
+
+    @Test
+    public void parallelBFS() {
+        Random rand = new Random(42);
+        for (boolean directed : new boolean[] { true, false }) {
+            Graph g = directed ? new DirectedGraph() : new UndirectedGraph();
+            int n = 20000;
+            for (int i = 1; i <= n; i++) {
+                g.add();
+            }
+            for (int k = 0; k < 8 * n; k++) {
+                int u = 1 + rand.nextInt(n), v = 1 + rand.nextInt(n);
+                if (!g.contains(u, v)) {
+                    g.add(u, v);
+                }
+            }
+            g.remove(7);
+            ParallelBreadthFirstSearch search =
+                new ParallelBreadthFirstSearch(g);
+            search.search(1);
+            int[] depths = search.depths();
+            int[] parents = search.parents();
+            assertArrayEquals(bfsDepths(g, 1), depths);
+            assertTrue(search.bottomUpSteps() > 0);
+            for (int v = 2; v <= n; v++) {
+                if (depths[v] > 0) {
+                    assertTrue(g.contains(parents[v], v));
+                    assertEquals(depths[v] - 1, depths[parents[v]]);
+                }
+            }
+            assertFalse(search.reached(7));
+        }
+        Graph unindexed = new DirectedGraph(false);
+        for (int i = 1; i <= 1000; i++) {
+            unindexed.add();
+        }
+        for (int i = 2; i <= 1000; i++) {
+            unindexed.add(1, i);
+        }
+        ParallelBreadthFirstSearch search =
+            new ParallelBreadthFirstSearch(unindexed);
+        search.search(1);
+        assertEquals(1, search.depths()[1000]);
+        assertEquals(0, search.bottomUpSteps());
+    }
+
+    @Test
+    public void multiSourceBFS() {
+        Random rand = new Random(7);
+        Graph g = new DirectedGraph();
+        int n = 2000;
+        for (int i = 1; i <= n; i++) {
+            g.add();
+        }
+        for (int k = 0; k < 3 * n; k++) {
+            int u = 1 + rand.nextInt(n), v = 1 + rand.nextInt(n);
+            if (!g.contains(u, v)) {
+                g.add(u, v);
+            }
+        }
+        int[] sources = new int[150];
+        for (int k = 0; k < sources.length; k++) {
+            sources[k] = 1 + rand.nextInt(n);
+        }
+        int[][] depths = new MultiSourceBreadthFirstSearch(g).depths(sources);
+        for (int k = 0; k < sources.length; k++) {
+            assertArrayEquals(bfsDepths(g, sources[k]), depths[k]);
+        }
+
+        Graph chain = new DirectedGraph();
+        for (int i = 1; i <= 5; i++) {
+            chain.add();
+        }
+        chain.add(1, 2);
+        chain.add(2, 3);
+        chain.add(4, 5);
+        BitSet[] reach =
+            new MultiSourceBreadthFirstSearch(chain, true).reachable(3, 5);
+        assertEquals("{1, 2, 3}", reach[0].toString());
+        assertEquals("{4, 5}", reach[1].toString());
+    }
+
+    @Test
+    public void intFringes() {
+        IntQueue queue = new IntQueue();
+        for (int i = 1; i <= 40; i++) {
+            queue.add(i);
+            if (i % 3 == 0) {
+                assertEquals(i / 3, queue.remove());
+            }
+        }
+        queue.addFirst(99);
+        assertTrue(queue.remove(20));
+        assertEquals(27, queue.size());
+        assertEquals(99, queue.remove());
+        assertEquals(40, queue.removeLast());
+        assertEquals(14, queue.remove());
+        assertEquals(15, queue.remove());
+
+        IntStack stack = new IntStack();
+        for (int i = 1; i <= 40; i++) {
+            stack.add(i);
+        }
+        assertTrue(stack.remove(39));
+        assertFalse(stack.remove(41));
+        assertEquals(40, stack.remove());
+        assertEquals(38, stack.remove());
+        assertEquals(37, stack.peek());
+        Queue<Integer> view = stack.asQueue();
+        assertEquals(37, (int) view.poll());
+        view.offer(100);
+        assertEquals(100, stack.peek());
+        assertTrue(view.remove(Integer.valueOf(1)));
+        assertEquals(36, view.size());
+        assertEquals(2, stack.toArray()[0]);
+
+        final double[] keys = new double[100];
+        IntPriorityQueue heap =
+            new IntPriorityQueue((a, b) -> Double.compare(keys[a], keys[b]));
+        Random rand = new Random(3);
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = rand.nextDouble();
+            heap.add(i);
+        }
+        keys[50] = -1.0;
+        heap.update(50);
+        heap.remove(7);
+        assertFalse(heap.contains(7));
+        assertEquals(50, heap.remove());
+        double last = -1.0;
+        while (!heap.isEmpty()) {
+            int v = heap.remove();
+            assertTrue(v != 7 && keys[v] >= last);
+            last = keys[v];
+        }
+        assertEquals(null, heap.asQueue().peek());
+
+        Graph g = new DirectedGraph();
+        for (int i = 1; i <= 4; i++) {
+            g.add();
+        }
+        g.add(1, 2);
+        g.add(2, 3);
+        g.add(3, 4);
+        final ArrayList<Integer> order = new ArrayList<Integer>();
+        new BreadthFirstTraversal(g) {
+            @Override
+            protected boolean visit(int v) {
+                order.add(v);
+                return true;
+            }
+
+            @Override
+            protected void processSuccessors(int u) {
+                if (u < 3) {
+                    _fringe.add(u + 1);
+                    _ints.add(4);
+                }
+            }
+        }.traverse(1);
+        assertEquals("[1, 2, 4, 3]", order.toString());
+    }
+
+    @Test
+    public void markGenerations() {
+        Graph g = new DirectedGraph();
+        int n = 50000;
+        for (int i = 1; i <= n; i++) {
+            g.add();
+        }
+        for (int i = 1; i < n; i++) {
+            g.add(i, i + 1);
+        }
+        ArrayList<Integer> list = new ArrayList<Integer>();
+        BFS traversal = new BFS(g, list);
+        traversal.traverse(1);
+        assertEquals(n, list.size());
+        assertTrue(traversal.marked(n));
+        traversal.clear();
+        assertFalse(traversal.marked(1));
+        g.add(g.add(), 1);
+        list.clear();
+        traversal.traverse(n + 1);
+        assertEquals(n + 1, list.size());
+        list.clear();
+        traversal.traverse(n + 1);
+        assertEquals("Marks should persist without clear.", 0, list.size());
+    }
+
     private class PreDFS extends Traversal {
 
         protected PreDFS(Graph G, ArrayList<Integer> list) {
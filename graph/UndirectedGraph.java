@@ -9,6 +9,11 @@ package graph;
  */
 public class UndirectedGraph extends GraphObj {
 
+    /** An empty undirected graph. */
+    public UndirectedGraph() {
+        super(false);
+    }
+
     @Override
     public boolean isDirected() {
         return false;
@@ -23,4 +28,9 @@ public class UndirectedGraph extends GraphObj {
     public Iteration<Integer> predecessors(int v) {
         return successors(v);
     }
+
+    @Override
+    public IntIteration intPredecessors(int v) {
+        return intSuccessors(v);
+    }
 }
@@ -0,0 +1,740 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/** A directed or undirected graph that keeps multiple versions, so that
+ *  readers see a consistent graph while a writer modifies it.  Each call
+ *  of snapshot() returns the most recently published version as a
+ *  read-only Graph, in constant time and without locking.  The snapshot
+ *  never changes afterwards, so that (for example) a ShortestPaths or
+ *  Traversal may run over it while the writer continues.
+ *
+ *  Vertices are grouped into chunks of 64, each holding the membership
+ *  bits and adjacency lists of its vertices, and chunks into blocks of 64
+ *  chunk references, reached through a top-level table of blocks.  A
+ *  modification copies only the chunks it touches and the blocks holding
+ *  them (once per version), plus the top-level table, whose size is the
+ *  number of vertices / 4096, and shares everything else with the
+ *  previous version.
+ *  Adjacency arrays are shared too: appending to a list writes past the
+ *  end that older versions can see, and removing from a list copies it.
+ *  Each mutating call publishes a new version when it returns.  To apply
+ *  many updates as one version (cheaper, and seen by readers all at once
+ *  or not at all), bracket them with beginBatch() and endBatch().
+ *
+ *  Modifications are serialized by a lock.  Reads through this object
+ *  itself see the latest published version, except that the thread
+ *  performing a batch sees its own changes.  Edge ids are those of the
+ *  version in which the edge was added, and the ids of removed edges may
+ *  be reused.  Finding an edge's id takes time proportional to the degree
+ *  of its first end.  A LabeledGraph built on a VersionedGraph does not
+ *  version its labels.
+ *  @author Eric Huang
+ */
+public class VersionedGraph extends Graph {
+
+    /** An empty graph, which is directed iff DIRECTED. */
+    public VersionedGraph(boolean directed) {
+        _published = new Version(directed);
+        _freeVertex = 1;
+        _nextEdge = 1;
+        _freeEdges = new int[INITIAL_SIZE];
+    }
+
+    /** Returns the latest published version of me, which will not change
+     *  and which may not be modified. */
+    public Graph snapshot() {
+        return _published;
+    }
+
+    /** Start a batch of modifications, which will be published together as
+     *  a single version by the matching call of endBatch().  Batches may
+     *  be nested; only the outermost one publishes.  Other writers wait
+     *  until the batch ends. */
+    public void beginBatch() {
+        _lock.lock();
+        if (_depth == 0) {
+            _epoch += 1;
+            _working = new Version(_published, _epoch);
+        }
+        _depth += 1;
+    }
+
+    /** End a batch begun by beginBatch(), publishing its changes if it is
+     *  the outermost. */
+    public void endBatch() {
+        if (!_lock.isHeldByCurrentThread() || _depth == 0) {
+            throw new IllegalStateException("no batch in progress");
+        }
+        _depth -= 1;
+        if (_depth == 0) {
+            _published = _working;
+            _working = null;
+        }
+        _lock.unlock();
+    }
+
+    @Override
+    public int vertexSize() {
+        return current().vertexSize();
+    }
+
+    @Override
+    public int maxVertex() {
+        return current().maxVertex();
+    }
+
+    @Override
+    public int edgeSize() {
+        return current().edgeSize();
+    }
+
+    @Override
+    public boolean isDirected() {
+        return _published.isDirected();
+    }
+
+    @Override
+    public int outDegree(int v) {
+        return current().outDegree(v);
+    }
+
+    @Override
+    public int inDegree(int v) {
+        return current().inDegree(v);
+    }
+
+    @Override
+    public boolean contains(int u) {
+        return current().contains(u);
+    }
+
+    @Override
+    public boolean contains(int u, int v) {
+        return current().contains(u, v);
+    }
+
+    @Override
+    public int add() {
+        beginBatch();
+        try {
+            int v = _freeVertex;
+            _working.writable(v).present |= 1L << v;
+            _working._vertexSize += 1;
+            _working._maxVertex = Math.max(_working._maxVertex, v);
+            do {
+                _freeVertex += 1;
+            } while (_working.contains(_freeVertex));
+            return v;
+        } finally {
+            endBatch();
+        }
+    }
+
+    @Override
+    public int add(int u, int v) {
+        beginBatch();
+        try {
+            if (_working.contains(u, v)) {
+                throw new IllegalArgumentException("Edge already exists.");
+            }
+            if (!_working.contains(u) || !_working.contains(v)) {
+                throw new IllegalArgumentException("Vertices do not exist.");
+            }
+            int id;
+            if (_freeEdgeCount > 0) {
+                _freeEdgeCount -= 1;
+                id = _freeEdges[_freeEdgeCount];
+            } else {
+                id = _nextEdge;
+                _nextEdge += 1;
+            }
+            _working.writable(u).out.append(u, v, id);
+            if (isDirected()) {
+                _working.writable(v).in.append(v, u, id);
+            } else if (u != v) {
+                _working.writable(v).out.append(v, u, id);
+            }
+            _working._edgeSize += 1;
+            return id;
+        } finally {
+            endBatch();
+        }
+    }
+
+    @Override
+    public void remove(int v) {
+        beginBatch();
+        try {
+            if (!_working.contains(v)) {
+                return;
+            }
+            for (IntIteration succs = _working.intSuccessors(v);
+                 succs.hasNext(); ) {
+                removeEdge(v, succs.nextInt());
+            }
+            if (isDirected()) {
+                for (IntIteration preds = _working.intPredecessors(v);
+                     preds.hasNext(); ) {
+                    removeEdge(preds.nextInt(), v);
+                }
+            }
+            _working.writable(v).present &= ~(1L << v);
+            _working._vertexSize -= 1;
+            _freeVertex = Math.min(_freeVertex, v);
+            while (_working._maxVertex > 0
+                   && !_working.contains(_working._maxVertex)) {
+                _working._maxVertex -= 1;
+            }
+        } finally {
+            endBatch();
+        }
+    }
+
+    @Override
+    public void remove(int u, int v) {
+        beginBatch();
+        try {
+            if (_working.contains(u, v)) {
+                removeEdge(u, v);
+            }
+        } finally {
+            endBatch();
+        }
+    }
+
+    /** Remove each of VERTICES that is present, and all adjacent edges,
+     *  publishing the result as a single version. */
+    @Override
+    public void removeAll(int[] vertices) {
+        beginBatch();
+        try {
+            super.removeAll(vertices);
+        } finally {
+            endBatch();
+        }
+    }
+
+    /** Remove each edge (PAIRS[2k], PAIRS[2k+1]) that is present,
+     *  publishing the result as a single version. */
+    @Override
+    public void removeEdges(int[] pairs) {
+        beginBatch();
+        try {
+            super.removeEdges(pairs);
+        } finally {
+            endBatch();
+        }
+    }
+
+    @Override
+    public Iteration<Integer> vertices() {
+        return current().vertices();
+    }
+
+    @Override
+    public Iteration<Integer> successors(int v) {
+        return current().successors(v);
+    }
+
+    @Override
+    public Iteration<Integer> predecessors(int v) {
+        return current().predecessors(v);
+    }
+
+    @Override
+    public IntIteration intVertices() {
+        return current().intVertices();
+    }
+
+    @Override
+    public IntIteration intSuccessors(int v) {
+        return current().intSuccessors(v);
+    }
+
+    @Override
+    public IntIteration intPredecessors(int v) {
+        return current().intPredecessors(v);
+    }
+
+    @Override
+    public Iteration<int[]> edges() {
+        return current().edges();
+    }
+
+    @Override
+    void load(int n, long[] edges, int count) {
+        beginBatch();
+        try {
+            super.load(n, edges, count);
+        } finally {
+            endBatch();
+        }
+    }
+
+    @Override
+    protected int edgeId(int u, int v) {
+        return current().edgeId(u, v);
+    }
+
+    /** Returns the version that reads should use: the one being built, if
+     *  the current thread is building one, and otherwise the latest
+     *  published. */
+    private Version current() {
+        if (_working != null && _lock.isHeldByCurrentThread()) {
+            return _working;
+        }
+        return _published;
+    }
+
+    /** Remove the existing edge (U, V) from the working version and free
+     *  its id. */
+    private void removeEdge(int u, int v) {
+        int id = _working.writable(u).out.remove(u, v);
+        if (isDirected()) {
+            _working.writable(v).in.remove(v, u);
+        } else if (u != v) {
+            _working.writable(v).out.remove(v, u);
+        }
+        _working._edgeSize -= 1;
+        if (_freeEdgeCount == _freeEdges.length) {
+            _freeEdges = Arrays.copyOf(_freeEdges, 2 * _freeEdgeCount);
+        }
+        _freeEdges[_freeEdgeCount] = id;
+        _freeEdgeCount += 1;
+    }
+
+    /** The adjacency lists in one direction of the vertices of a chunk,
+     *  indexed by vertex number mod CHUNK_SIZE.  The array of a list may be
+     *  shared with older versions, which see only a prefix of it; entries
+     *  in that prefix are never changed. */
+    private static final class Lists {
+        /** Empty lists. */
+        Lists() {
+            nbrs = new int[CHUNK_SIZE][];
+            ids = new int[CHUNK_SIZE][];
+            sizes = new int[CHUNK_SIZE];
+        }
+
+        /** A copy of LISTS, sharing its arrays of neighbors and ids. */
+        Lists(Lists lists) {
+            nbrs = lists.nbrs.clone();
+            ids = lists.ids.clone();
+            sizes = lists.sizes.clone();
+        }
+
+        /** Returns an iteration over the neighbors of V. */
+        IntIteration neighbors(int v) {
+            int k = v & CHUNK_MASK;
+            return IntIteration.range(nbrs[k] == null ? EMPTY : nbrs[k],
+                                      0, sizes[k]);
+        }
+
+        /** Returns the id of the edge to W in V's list, or 0 if none. */
+        int find(int v, int w) {
+            int k = v & CHUNK_MASK;
+            for (int j = 0; j < sizes[k]; j += 1) {
+                if (nbrs[k][j] == w) {
+                    return ids[k][j];
+                }
+            }
+            return 0;
+        }
+
+        /** Append W, connected by edge ID, to V's list. */
+        void append(int v, int w, int id) {
+            int k = v & CHUNK_MASK;
+            if (nbrs[k] == null) {
+                nbrs[k] = new int[INITIAL_SIZE];
+                ids[k] = new int[INITIAL_SIZE];
+            } else if (sizes[k] == nbrs[k].length) {
+                nbrs[k] = Arrays.copyOf(nbrs[k], 2 * sizes[k]);
+                ids[k] = Arrays.copyOf(ids[k], 2 * sizes[k]);
+            }
+            nbrs[k][sizes[k]] = w;
+            ids[k][sizes[k]] = id;
+            sizes[k] += 1;
+        }
+
+        /** Remove W from V's list, which must contain it, into new arrays.
+         *  Returns the id of the connecting edge. */
+        int remove(int v, int w) {
+            int k = v & CHUNK_MASK;
+            int n = sizes[k];
+            int j;
+            for (j = 0; nbrs[k][j] != w; j += 1) {
+                continue;
+            }
+            int id = ids[k][j];
+            int[] newNbrs = new int[Math.max(INITIAL_SIZE, n)];
+            int[] newIds = new int[newNbrs.length];
+            System.arraycopy(nbrs[k], 0, newNbrs, 0, j);
+            System.arraycopy(nbrs[k], j + 1, newNbrs, j, n - j - 1);
+            System.arraycopy(ids[k], 0, newIds, 0, j);
+            System.arraycopy(ids[k], j + 1, newIds, j, n - j - 1);
+            nbrs[k] = newNbrs;
+            ids[k] = newIds;
+            sizes[k] = n - 1;
+            return id;
+        }
+
+        /** Neighbor lists. */
+        private final int[][] nbrs;
+        /** Edge ids parallel to nbrs. */
+        private final int[][] ids;
+        /** Number of entries of each list visible in this version. */
+        private final int[] sizes;
+    }
+
+    /** The vertices numbered CHUNK_SIZE * c .. CHUNK_SIZE * c + CHUNK_SIZE-1
+     *  for some c, as of some version. */
+    private static final class Chunk {
+        /** An empty chunk created in EPOCH, for a directed graph iff
+         *  DIRECTED. */
+        Chunk(boolean directed, int epoch) {
+            this.epoch = epoch;
+            out = new Lists();
+            in = directed ? new Lists() : null;
+        }
+
+        /** A copy of CHUNK for use in EPOCH. */
+        Chunk(Chunk chunk, int epoch) {
+            this.epoch = epoch;
+            present = chunk.present;
+            out = new Lists(chunk.out);
+            in = chunk.in == null ? null : new Lists(chunk.in);
+        }
+
+        /** The version number in which I was created; I may be modified
+         *  only while that version is being built. */
+        private final int epoch;
+        /** Bit v mod CHUNK_SIZE is set iff vertex v is present. */
+        private long present;
+        /** Outgoing (or, if undirected, all) neighbors. */
+        private final Lists out;
+        /** Incoming neighbors, or null if undirected. */
+        private final Lists in;
+    }
+
+    /** The chunks numbered BLOCK_SIZE * b .. BLOCK_SIZE * b + BLOCK_SIZE-1
+     *  for some b, as of some version. */
+    private static final class Block {
+        /** An empty block created in EPOCH. */
+        Block(int epoch) {
+            this.epoch = epoch;
+            chunks = new Chunk[BLOCK_SIZE];
+        }
+
+        /** A copy of BLOCK for use in EPOCH. */
+        Block(Block block, int epoch) {
+            this.epoch = epoch;
+            chunks = block.chunks.clone();
+        }
+
+        /** The version number in which I was created; I may be modified
+         *  only while that version is being built. */
+        private final int epoch;
+        /** My chunks, indexed by chunk number mod BLOCK_SIZE.  Null entries
+         *  have no vertices or edges. */
+        private final Chunk[] chunks;
+    }
+
+    /** One version of a VersionedGraph, which may be modified only by its
+     *  owner, and only before it is published. */
+    private static final class Version extends Graph {
+        /** An empty initial version, directed iff DIRECTED. */
+        Version(boolean directed) {
+            _directed = directed;
+            _blocks = new Block[INITIAL_SIZE];
+        }
+
+        /** A new version, numbered EPOCH, with the same contents as
+         *  PREVIOUS. */
+        Version(Version previous, int epoch) {
+            _directed = previous._directed;
+            _epoch = epoch;
+            _blocks = previous._blocks;
+            _sharedBlocks = true;
+            _vertexSize = previous._vertexSize;
+            _edgeSize = previous._edgeSize;
+            _maxVertex = previous._maxVertex;
+        }
+
+        @Override
+        public int vertexSize() {
+            return _vertexSize;
+        }
+
+        @Override
+        public int maxVertex() {
+            return _maxVertex;
+        }
+
+        @Override
+        public int edgeSize() {
+            return _edgeSize;
+        }
+
+        @Override
+        public boolean isDirected() {
+            return _directed;
+        }
+
+        @Override
+        public int outDegree(int v) {
+            Chunk c = chunk(v);
+            return c == null ? 0 : c.out.sizes[v & CHUNK_MASK];
+        }
+
+        @Override
+        public int inDegree(int v) {
+            Chunk c = chunk(v);
+            if (c == null) {
+                return 0;
+            }
+            return (_directed ? c.in : c.out).sizes[v & CHUNK_MASK];
+        }
+
+        @Override
+        public boolean contains(int u) {
+            Chunk c = chunk(u);
+            return c != null && (c.present & (1L << u)) != 0;
+        }
+
+        @Override
+        public boolean contains(int u, int v) {
+            return edgeId(u, v) != 0;
+        }
+
+        @Override
+        public int add() {
+            throw new UnsupportedOperationException("graph is read-only");
+        }
+
+        @Override
+        public int add(int u, int v) {
+            throw new UnsupportedOperationException("graph is read-only");
+        }
+
+        @Override
+        public void remove(int v) {
+            throw new UnsupportedOperationException("graph is read-only");
+        }
+
+        @Override
+        public void remove(int u, int v) {
+            throw new UnsupportedOperationException("graph is read-only");
+        }
+
+        @Override
+        public Iteration<Integer> vertices() {
+            return intVertices();
+        }
+
+        @Override
+        public Iteration<Integer> successors(int v) {
+            return intSuccessors(v);
+        }
+
+        @Override
+        public Iteration<Integer> predecessors(int v) {
+            return intPredecessors(v);
+        }
+
+        @Override
+        public IntIteration intVertices() {
+            return new IntIteration() {
+                @Override
+                public boolean hasNext() {
+                    while (_v <= _maxVertex && !contains(_v)) {
+                        _v += 1;
+                    }
+                    return _v <= _maxVertex;
+                }
+
+                @Override
+                public int nextInt() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    _v += 1;
+                    return _v - 1;
+                }
+
+                /** Next candidate vertex. */
+                private int _v = 1;
+            };
+        }
+
+        @Override
+        public IntIteration intSuccessors(int v) {
+            Chunk c = chunk(v);
+            return c == null ? IntIteration.range(EMPTY, 0, 0)
+                : c.out.neighbors(v);
+        }
+
+        @Override
+        public IntIteration intPredecessors(int v) {
+            if (!_directed) {
+                return intSuccessors(v);
+            }
+            Chunk c = chunk(v);
+            return c == null ? IntIteration.range(EMPTY, 0, 0)
+                : c.in.neighbors(v);
+        }
+
+        @Override
+        public Iteration<int[]> edges() {
+            return new Iteration<int[]>() {
+                @Override
+                public boolean hasNext() {
+                    if (_v != 0) {
+                        return true;
+                    }
+                    while (_u <= _maxVertex) {
+                        while (_succs.hasNext()) {
+                            _v = _succs.nextInt();
+                            if (_directed || _u <= _v) {
+                                return true;
+                            }
+                        }
+                        _u += 1;
+                        _succs = intSuccessors(_u);
+                    }
+                    return false;
+                }
+
+                @Override
+                public int[] next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    _edge[0] = _u;
+                    _edge[1] = _v;
+                    _v = 0;
+                    return _edge;
+                }
+
+                /** First end of the pending edge. */
+                private int _u = 0;
+                /** Second end of the pending edge, or 0 if none. */
+                private int _v;
+                /** Remaining successors of _u. */
+                private IntIteration _succs = IntIteration.range(EMPTY, 0, 0);
+                /** The array returned by next(). */
+                private final int[] _edge = new int[2];
+            };
+        }
+
+        @Override
+        protected void checkMyVertex(int v) {
+            if (!contains(v)) {
+                throw new IllegalArgumentException("vertex not from Graph");
+            }
+        }
+
+        @Override
+        protected int edgeId(int u, int v) {
+            Chunk c = chunk(u);
+            return c == null || v <= 0 ? 0 : c.out.find(u, v);
+        }
+
+        /** Returns the chunk containing vertex V, or null if none. */
+        private Chunk chunk(int v) {
+            int c = v >>> CHUNK_SHIFT, b = c >>> BLOCK_SHIFT;
+            if (v <= 0 || b >= _blocks.length || _blocks[b] == null) {
+                return null;
+            }
+            return _blocks[b].chunks[c & BLOCK_MASK];
+        }
+
+        /** Returns the chunk containing vertex V, creating or copying it,
+         *  its block, and my table of blocks as needed so that it belongs
+         *  to me and may be modified. */
+        private Chunk writable(int v) {
+            int c = v >>> CHUNK_SHIFT, b = c >>> BLOCK_SHIFT;
+            if (b >= _blocks.length) {
+                _blocks = Arrays.copyOf(_blocks,
+                                        Math.max(b + 1, 2 * _blocks.length));
+                _sharedBlocks = false;
+            } else if (_sharedBlocks) {
+                _blocks = _blocks.clone();
+                _sharedBlocks = false;
+            }
+            Block block = _blocks[b];
+            if (block == null) {
+                block = _blocks[b] = new Block(_epoch);
+            } else if (block.epoch != _epoch) {
+                block = _blocks[b] = new Block(block, _epoch);
+            }
+            Chunk[] chunks = block.chunks;
+            Chunk chunk = chunks[c & BLOCK_MASK];
+            if (chunk == null) {
+                chunk = chunks[c & BLOCK_MASK] = new Chunk(_directed, _epoch);
+            } else if (chunk.epoch != _epoch) {
+                chunk = chunks[c & BLOCK_MASK] = new Chunk(chunk, _epoch);
+            }
+            return chunk;
+        }
+
+        /** True iff I am directed. */
+        private final boolean _directed;
+        /** My version number. */
+        private int _epoch;
+        /** My blocks, indexed by vertex number / (CHUNK_SIZE * BLOCK_SIZE).
+         *  Null entries have no vertices or edges. */
+        private Block[] _blocks;
+        /** True iff _blocks is still shared with the previous version, and
+         *  so must be copied before it is modified. */
+        private boolean _sharedBlocks;
+        /** Number of vertices. */
+        private int _vertexSize;
+        /** Number of edges. */
+        private int _edgeSize;
+        /** Largest vertex number present, or 0 if none. */
+        private int _maxVertex;
+    }
+
+    /** log2 of the number of vertices per chunk. */
+    private static final int CHUNK_SHIFT = 6;
+    /** Number of vertices per chunk (the bits in a long). */
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    /** Mask extracting a vertex's position within its chunk. */
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    /** log2 of the number of chunks per block. */
+    private static final int BLOCK_SHIFT = 6;
+    /** Number of chunks per block. */
+    private static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+    /** Mask extracting a chunk's position within its block. */
+    private static final int BLOCK_MASK = BLOCK_SIZE - 1;
+    /** Initial size of growable arrays. */
+    private static final int INITIAL_SIZE = 4;
+    /** An empty list of neighbors. */
+    private static final int[] EMPTY = new int[0];
+
+    /** Serializes modifications. */
+    private final ReentrantLock _lock = new ReentrantLock();
+    /** The latest published version. */
+    private volatile Version _published;
+    /** The version being built by the current batch, or null if none;
+     *  guarded by _lock. */
+    private Version _working;
+    /** Number of the most recent version begun; guarded by _lock. */
+    private int _epoch;
+    /** Nesting depth of the current batch; guarded by _lock. */
+    private int _depth;
+    /** Smallest positive vertex number not present; guarded by _lock. */
+    private int _freeVertex;
+    /** One more than the largest edge id ever given out; guarded by
+     *  _lock. */
+    private int _nextEdge;
+    /** Stack of ids of removed edges, available for reuse; guarded by
+     *  _lock. */
+    private int[] _freeEdges;
+    /** Number of ids in _freeEdges; guarded by _lock. */
+    private int _freeEdgeCount;
+}
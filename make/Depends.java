@@ -1,16 +1,19 @@
 package make;
 
 import graph.DirectedGraph;
+import graph.IntColumn;
 import graph.LabeledGraph;
+import graph.ObjectColumn;
 
 /** A directed, labeled subtype of Graph that describes dependencies between
  *  targets in a Makefile. The nodes correspond to Rules and edges out
- *  of rules are numbered to indicate the ordering of dependencies.
+ *  of rules are numbered to indicate the ordering of dependencies.  Edge
+ *  numbers are kept unboxed in an IntColumn.
  *  @author Eric Huang
  */
 class Depends extends LabeledGraph<Rule, Integer> {
     /** An empty dependency graph. */
     Depends() {
-        super(new DirectedGraph());
+        super(new DirectedGraph(), new ObjectColumn<Rule>(), new IntColumn());
     }
 }
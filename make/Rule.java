@@ -1,5 +1,7 @@
 package make;
 
+import graph.IntIteration;
+
 import java.util.ArrayList;
 import java.util.List;
 
@@ -67,7 +69,9 @@ class Rule {
     /** Check that dependencies are in fact built before it's time to rebuild
      *  a node. */
     private void checkFinishedDependencies() {
-        for (Integer r : _depends.successors(_vertex)) {
+        for (IntIteration succs = _depends.intSuccessors(_vertex);
+             succs.hasNext(); ) {
+            int r = succs.nextInt();
             if (_depends.getLabel(r).isUnfinished()) {
                 error("error: " + _depends.getLabel(r).getTarget()
                         + " is unfinished.");
@@ -82,8 +86,9 @@ class Rule {
         if (_time == null) {
             return true;
         }
-        for (Integer r : _depends.successors(_vertex)) {
-            if (_depends.getLabel(r).getTime() > _time) {
+        for (IntIteration succs = _depends.intSuccessors(_vertex);
+             succs.hasNext(); ) {
+            if (_depends.getLabel(succs.nextInt()).getTime() > _time) {
                 return true;
             }
         }
@@ -1,6 +1,7 @@
 package trip;
 
 import graph.DirectedGraph;
+import graph.GraphBuilder;
 import graph.LabeledGraph;
 import graph.SimpleShortestPaths;
 
@@ -25,6 +26,7 @@ class Trip {
     void readMap(String name) {
         int n;
         n = 0;
+        _builder = new GraphBuilder<>(true);
         try {
             Scanner inp = new Scanner(new File(name));
             while (inp.hasNext()) {
@@ -49,6 +51,8 @@ class Trip {
         } catch (NoSuchElementException excp) {
             error("entry incomplete at end of file");
         }
+        _builder.fill(_map);
+        _builder = null;
     }
 
     /** Produce a report on the standard output of a shortest journey from
@@ -123,7 +127,7 @@ class Trip {
         if (_sites.containsKey(name)) {
             error("multiple entries for %s", name);
         }
-        int v = _map.add(new Location(name, x, y));
+        int v = _builder.addVertex(new Location(name, x, y));
         _sites.put(name, v);
     }
 
@@ -142,12 +146,14 @@ class Trip {
             error("location %s not defined", to);
         }
 
-        _map.add(v0, v1, new Road(name, dir, length));
-        _map.add(v1, v0, new Road(name, dir.reverse(), length));
+        _builder.addEdge(v0, v1, new Road(name, dir, length));
+        _builder.addEdge(v1, v0, new Road(name, dir.reverse(), length));
     }
 
     /** Represents the network of Locations and Roads. */
     private RoadMap _map = new RoadMap();
+    /** Collects the Locations and Roads of the map being read. */
+    private GraphBuilder<Location, Road> _builder;
     /** Mapping of Location names to corresponding map vertices. */
     private HashMap<String, Integer> _sites = new HashMap<>();
 